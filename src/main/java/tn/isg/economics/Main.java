@@ -166,7 +166,11 @@ import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.model.ProductType;
 import tn.isg.economics.model.MarketIndicator;
 import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.service.EconomicIntelligenceService;
+import tn.isg.economics.util.ConfigLoader;
+import tn.isg.economics.util.ExchangeRateTable;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;  // ADDED IMPORT
@@ -177,7 +181,8 @@ public class Main {
     public static void main(String[] args) {
         System.out.println("=== Tunisian Agricultural Export AI System ===\n");
         System.out.println("FEATURING: REAL FUTURE PRICE PREDICTIONS\n");
-        System.out.println("Currency: Tunisian Dinar (TND) - Exchange rate: 1 USD = 3.1 TND\n");
+        System.out.println("Currency: Tunisian Dinar (TND) - Exchange rate: 1 USD = "
+                + ExchangeRateTable.usdToTnd().latestRate() + " TND (latest)\n");
 
         try {
             // 1. Generate sample data
@@ -193,6 +198,18 @@ public class Main {
             var predictionService = new TimeSeriesPredictionService();  // CHANGED
             predictionService.loadModel();
 
+            // Restore the prediction history of earlier runs
+            var reportService = new LLMReportService();
+            var intelligenceService = EconomicIntelligenceService.builder()
+                    .predictionModel(predictionService)
+                    .reportGenerator(reportService)
+                    .build();
+            Path historyPath = Path.of(ConfigLoader.getHistorySnapshotPath());
+            int restored = intelligenceService.restoreHistory(historyPath);
+            if (restored > 0) {
+                System.out.println("   Restored " + restored + " predictions from " + historyPath);
+            }
+
             // 3. Generate FUTURE predictions
             System.out.println("3. Generating 6-month price forecasts...");
             List<PricePrediction> allPredictions = new ArrayList<>();
@@ -204,11 +221,13 @@ public class Main {
             }
 
             System.out.println("   Generated " + allPredictions.size() + " future predictions");
+            intelligenceService.recordPredictions(allPredictions);
+            intelligenceService.persistHistory(historyPath);
 
             // 4. Show sample future predictions
             System.out.println("\n=== FUTURE PRICE PREDICTIONS (Next 6 Months) ===");
             System.out.println("Currency: Tunisian Dinar (TND)");
-            System.out.println("Exchange rate: 1 USD = 3.1 TND\n");
+            System.out.println("Exchange rate: 1 USD = " + ExchangeRateTable.usdToTnd().latestRate() + " TND (latest)\n");
 
             // Group by product and show predictions
             Map<String, List<PricePrediction>> byProduct = allPredictions.stream()
@@ -249,7 +268,6 @@ public class Main {
 
             // 6. Initialize LLM report service for additional insights
             System.out.println("\n=== AI MARKET INSIGHTS ===");
-            var reportService = new LLMReportService();
             String report = reportService.generateMarketReport(allPredictions);
             System.out.println(report);
 
@@ -274,9 +292,10 @@ public class Main {
         }
     }
 
+
     // Optional: Keep the sample data creation method for reference
     private static List<ExportData> createSampleDataInTND() {
-        double usdToTnd = 3.1;
+        double usdToTnd = ExchangeRateTable.usdToTnd().latestRate();
         LocalDate today = LocalDate.now();
 
         return List.of(
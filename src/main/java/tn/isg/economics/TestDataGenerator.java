@@ -1,6 +1,7 @@
 package tn.isg.economics;
 
 import tn.isg.economics.data.generator.SyntheticDataGenerator;
+import tn.isg.economics.data.generator.WorkloadProfile;
 import tn.isg.economics.util.ConfigLoader;
 import java.time.LocalDate;
 
@@ -24,6 +25,12 @@ public class TestDataGenerator {
                 var data = generator.generateExportData(10, startDate, endDate);
                 System.out.println("Generated " + data.size() + " records");
                 
+                // Write a dataset shaped by data.synthetic.profile and data.synthetic.rows
+                WorkloadProfile profile = WorkloadProfile.fromConfig();
+                String datasetPath = "data/datasets/synthetic/" + profile.name() + "_exports.csv";
+                generator.generateCompleteDataset(datasetPath);
+                System.out.println("Wrote " + profile.rows() + " " + profile.name() + " records to " + datasetPath);
+                
                 System.out.println("? Test passed!");
             } else {
                 System.out.println("Synthetic data is disabled");
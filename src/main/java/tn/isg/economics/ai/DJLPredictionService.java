@@ -1,77 +1,215 @@
 package tn.isg.economics.ai;
 
+import ai.djl.Device;
+import ai.djl.MalformedModelException;
+import ai.djl.inference.Predictor;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ModelNotFoundException;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.TranslateException;
 import tn.isg.economics.annotation.AIService;
 import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.model.PredictionStatus;
 import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.util.ConfigLoader;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 
+/**
+ * Price predictions from a DJL model on the CPU PyTorch engine.
+ *
+ * The model is loaded once; predictors are not thread-safe, so loadModel()
+ * fills a bounded pool that concurrent callers borrow from and return to.
+ * predictBatch stacks up to batchSize records into one NDArray per call.
+ * Without a model file the service falls back to demo predictions.
+ */
 @AIService(provider = "DJL", version = "0.25.0")
 public class DJLPredictionService extends BaseAIModel {
     private static final Logger logger = Logger.getLogger(DJLPredictionService.class.getName());
-    
+
+    private final Path modelPath;
+    private final int poolSize;
+    private final int batchSize;
+    // Predictions hold the read lock so unloadModel() never closes a predictor in use
+    private final ReadWriteLock modelLock = new ReentrantReadWriteLock();
+    private volatile ZooModel<ExportData, Float> model;
+    private BlockingQueue<Predictor<ExportData, Float>> predictors;
+
+    /**
+     * Model from ai.model.djl.path, pool and batch sizes from djl.predictor.pool.size and djl.batch_size
+     */
     public DJLPredictionService() {
+        this(Path.of(ConfigLoader.getModelPath("djl")),
+                ConfigLoader.getDjlPredictorPoolSize(), ConfigLoader.getDjlBatchSize());
+    }
+
+    /**
+     * @param poolSize predictors shared by concurrent callers
+     * @param batchSize records stacked into one forward pass
+     */
+    public DJLPredictionService(Path modelPath, int poolSize, int batchSize) {
         super("DJL-Price-Predictor");
+        if (poolSize < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Pool and batch sizes must be positive");
+        }
+        this.modelPath = modelPath;
+        this.poolSize = poolSize;
+        this.batchSize = batchSize;
     }
-    
+
     @Override
     public void loadModel() throws ModelException {
+        modelLock.writeLock().lock();
         try {
+            closeModel();
+            if (!Files.exists(modelPath)) {
+                isLoaded = true;
+                logger.info("DJL model " + modelPath + " not found, using demo mode");
+                return;
+            }
+            Criteria<ExportData, Float> criteria = Criteria.builder()
+                .setTypes(ExportData.class, Float.class)
+                .optModelPath(modelPath)
+                .optEngine("PyTorch")
+                .optDevice(Device.cpu())
+                .optTranslator(new ExportFeatureTranslator())
+                .build();
+            model = criteria.loadModel();
+            predictors = new ArrayBlockingQueue<>(poolSize);
+            for (int i = 0; i < poolSize; i++) {
+                predictors.add(model.newPredictor());
+            }
             isLoaded = true;
-            logger.info("DJL model loaded successfully (demo mode)");
-        } catch (Exception e) {
-            throw new ModelException("Failed to load DJL model", e);
+            logger.info("DJL model loaded from " + modelPath + " with " + poolSize + " predictors");
+        } catch (ModelNotFoundException | MalformedModelException | IOException | RuntimeException e) {
+            closeModel();
+            throw new ModelException("Failed to load DJL model " + modelPath, e);
+        } finally {
+            modelLock.writeLock().unlock();
         }
     }
-    
+
+    /**
+     * Whether predictions come from a loaded model rather than the demo fallback
+     */
+    public boolean isModelBacked() {
+        return model != null;
+    }
+
     @Override
     public PricePrediction predictPrice(ExportData input) {
         validateInput(input);
-        
+        return predictBatch(List.of(input)).get(0);
+    }
+
+    @Override
+    public List<PricePrediction> predictBatch(List<ExportData> inputs) {
+        inputs.forEach(this::validateInput);
+
+        modelLock.readLock().lock();
+        try {
+            if (model == null) {
+                return inputs.stream().map(this::demoPrediction).toList();
+            }
+            List<PricePrediction> predictions = new ArrayList<>(inputs.size());
+            for (int from = 0; from < inputs.size(); from += batchSize) {
+                List<ExportData> batch = inputs.subList(from, Math.min(inputs.size(), from + batchSize));
+                predictions.addAll(predictPooled(batch));
+            }
+            return predictions;
+        } finally {
+            modelLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One stacked forward pass on a predictor borrowed from the pool
+     */
+    private List<PricePrediction> predictPooled(List<ExportData> batch) {
+        Predictor<ExportData, Float> predictor;
+        try {
+            predictor = predictors.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return batch.stream().map(this::failedPrediction).toList();
+        }
         try {
-            // Demo prediction logic
-            double basePrice = input.pricePerTon();
-            double predictedPrice = basePrice * (1.0 + (Math.random() * 0.2 - 0.1));
-            double confidence = 0.7 + (Math.random() * 0.25);
-            
-            return new PricePrediction(
-                LocalDate.now().plusDays(30),
-                input.productType(),
-                predictedPrice,
-                confidence,
-                modelName,
-                PredictionStatus.COMPLETED
-            );
-        } catch (Exception e) {
+            List<Float> predicted = predictor.batchPredict(batch);
+            LocalDate predictionDate = LocalDate.now().plusDays(30);
+            List<PricePrediction> predictions = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                predictions.add(new PricePrediction(predictionDate, batch.get(i).productType(),
+                    predicted.get(i), getModelAccuracy(), modelName, PredictionStatus.COMPLETED));
+            }
+            return predictions;
+        } catch (TranslateException e) {
             logger.severe("Prediction failed: " + e.getMessage());
-            return new PricePrediction(
-                LocalDate.now(),
-                input.productType(),
-                0.0,
-                0.0,
-                modelName,
-                PredictionStatus.FAILED
-            );
+            return batch.stream().map(this::failedPrediction).toList();
+        } finally {
+            predictors.add(predictor);
         }
     }
-    
-    @Override
-    public List<PricePrediction> predictBatch(List<ExportData> inputs) {
-        return inputs.stream()
-            .map(this::predictPrice)
-            .toList();
+
+    private PricePrediction demoPrediction(ExportData input) {
+        double basePrice = input.pricePerTon();
+        double predictedPrice = basePrice * (1.0 + (Math.random() * 0.2 - 0.1));
+        double confidence = 0.7 + (Math.random() * 0.25);
+
+        return new PricePrediction(
+            LocalDate.now().plusDays(30),
+            input.productType(),
+            predictedPrice,
+            confidence,
+            modelName,
+            PredictionStatus.COMPLETED
+        );
+    }
+
+    private PricePrediction failedPrediction(ExportData input) {
+        return new PricePrediction(
+            LocalDate.now(),
+            input.productType(),
+            0.0,
+            0.0,
+            modelName,
+            PredictionStatus.FAILED
+        );
     }
-    
+
     @Override
     public void unloadModel() {
-        isLoaded = false;
+        modelLock.writeLock().lock();
+        try {
+            closeModel();
+            isLoaded = false;
+        } finally {
+            modelLock.writeLock().unlock();
+        }
         logger.info("DJL model unloaded");
     }
-    
+
+    private void closeModel() {
+        if (predictors != null) {
+            predictors.forEach(Predictor::close);
+            predictors = null;
+        }
+        if (model != null) {
+            model.close();
+            model = null;
+        }
+    }
+
     @Override
     public double getModelAccuracy() {
         return 0.82;
@@ -0,0 +1,39 @@
+package tn.isg.economics.ai;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.Translator;
+import ai.djl.translate.TranslatorContext;
+import tn.isg.economics.model.ExportData;
+
+/**
+ * Maps a record to the feature vector (price per ton, volume, month, year,
+ * product ordinal) and the model output back to a price. Records are stacked
+ * into one [batch, 5] NDArray by batchPredict.
+ */
+class ExportFeatureTranslator implements Translator<ExportData, Float> {
+
+    @Override
+    public NDList processInput(TranslatorContext ctx, ExportData input) {
+        float[] features = {
+            (float) input.pricePerTon(),
+            (float) input.volume(),
+            input.date().getMonthValue(),
+            input.date().getYear(),
+            input.productType().ordinal()
+        };
+        return new NDList(ctx.getNDManager().create(features));
+    }
+
+    @Override
+    public Float processOutput(TranslatorContext ctx, NDList list) {
+        NDArray predicted = list.singletonOrThrow();
+        return predicted.toFloatArray()[0];
+    }
+
+    @Override
+    public Batchifier getBatchifier() {
+        return Batchifier.STACK;
+    }
+}
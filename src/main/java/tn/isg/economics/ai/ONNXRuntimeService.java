@@ -1,76 +1,230 @@
 package tn.isg.economics.ai;
 
+import ai.onnxruntime.NodeInfo;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.TensorInfo;
 import tn.isg.economics.annotation.AIService;
 import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.model.PredictionStatus;
 import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.util.ConfigLoader;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 
+/**
+ * Price predictions from an ONNX model with input [batch, 5] (price per ton,
+ * volume, month, year, product ordinal) and output [batch, 1] (predicted price).
+ *
+ * One OrtSession is created by loadModel() and shared by all threads; a batch
+ * is packed into a single direct-buffer tensor and run in one call. Without a
+ * model file the service falls back to demo predictions around the input price.
+ */
 @AIService(provider = "ONNX Runtime", version = "1.16.0")
 public class ONNXRuntimeService extends BaseAIModel {
     private static final Logger logger = Logger.getLogger(ONNXRuntimeService.class.getName());
-    
+    static final int FEATURES = 5;
+
+    private final Path modelPath;
+    private final int intraOpThreads;
+    private final int interOpThreads;
+    // Runs hold the read lock so unloadModel() never closes a session in use
+    private final ReadWriteLock sessionLock = new ReentrantReadWriteLock();
+    private volatile OrtSession session;
+    private String inputName;
+
+    /**
+     * Model from ai.model.onnx.path, threads from ai.onnx.intra.op.threads and ai.onnx.inter.op.threads
+     */
     public ONNXRuntimeService() {
+        this(Path.of(ConfigLoader.getModelPath("onnx")),
+                ConfigLoader.getOnnxIntraOpThreads(), ConfigLoader.getOnnxInterOpThreads());
+    }
+
+    /**
+     * @param intraOpThreads threads inside one operator, 0 for the runtime default
+     * @param interOpThreads threads across independent operators, 0 for the runtime default
+     */
+    public ONNXRuntimeService(Path modelPath, int intraOpThreads, int interOpThreads) {
         super("ONNX-Price-Predictor");
+        this.modelPath = modelPath;
+        this.intraOpThreads = intraOpThreads;
+        this.interOpThreads = interOpThreads;
     }
-    
+
     @Override
     public void loadModel() throws ModelException {
+        sessionLock.writeLock().lock();
         try {
+            closeSession();
+            if (!Files.isRegularFile(modelPath)) {
+                isLoaded = true;
+                logger.info("ONNX model " + modelPath + " not found, using demo mode");
+                return;
+            }
+            OrtEnvironment env = OrtEnvironment.getEnvironment();
+            try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+                options.setIntraOpNumThreads(intraOpThreads);
+                options.setInterOpNumThreads(interOpThreads);
+                session = env.createSession(modelPath.toString(), options);
+            }
+            inputName = session.getInputNames().iterator().next();
+            checkInputShape(session.getInputInfo().get(inputName));
             isLoaded = true;
-            logger.info("ONNX model loaded successfully (demo mode)");
-        } catch (Exception e) {
-            throw new ModelException("Failed to load ONNX model", e);
+            logger.info("ONNX model loaded from " + modelPath);
+        } catch (OrtException e) {
+            closeSession();
+            throw new ModelException("Failed to load ONNX model " + modelPath, e);
+        } catch (ModelException e) {
+            closeSession();
+            throw e;
+        } finally {
+            sessionLock.writeLock().unlock();
         }
     }
-    
+
+    /**
+     * Whether predictions come from a loaded model rather than the demo fallback
+     */
+    public boolean isModelBacked() {
+        return session != null;
+    }
+
     @Override
     public PricePrediction predictPrice(ExportData input) {
         validateInput(input);
-        
+        return predictBatch(List.of(input)).get(0);
+    }
+
+    @Override
+    public List<PricePrediction> predictBatch(List<ExportData> inputs) {
+        inputs.forEach(this::validateInput);
+        if (inputs.isEmpty()) {
+            return List.of();
+        }
+
+        sessionLock.readLock().lock();
         try {
-            double basePrice = input.pricePerTon();
-            double predictedPrice = basePrice * (1.0 + (Math.random() * 0.15 - 0.075));
-            double confidence = 0.75 + (Math.random() * 0.2);
-            
-            return new PricePrediction(
-                LocalDate.now().plusDays(30),
-                input.productType(),
-                predictedPrice,
-                confidence,
-                modelName,
-                PredictionStatus.COMPLETED
-            );
-        } catch (Exception e) {
+            if (session == null) {
+                return inputs.stream().map(this::demoPrediction).toList();
+            }
+            float[] predicted = run(inputs);
+            double confidence = getModelAccuracy();
+            LocalDate predictionDate = LocalDate.now().plusDays(30);
+            List<PricePrediction> predictions = new ArrayList<>(inputs.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                predictions.add(new PricePrediction(predictionDate, inputs.get(i).productType(),
+                        predicted[i], confidence, modelName, PredictionStatus.COMPLETED));
+            }
+            return predictions;
+        } catch (OrtException e) {
             logger.severe("ONNX prediction failed: " + e.getMessage());
-            return new PricePrediction(
-                LocalDate.now(),
-                input.productType(),
-                0.0,
-                0.0,
-                modelName,
-                PredictionStatus.FAILED
-            );
+            return inputs.stream().map(this::failedPrediction).toList();
+        } finally {
+            sessionLock.readLock().unlock();
         }
     }
-    
-    @Override
-    public List<PricePrediction> predictBatch(List<ExportData> inputs) {
-        return inputs.stream()
-            .map(this::predictPrice)
-            .toList();
+
+    /**
+     * One session run over all inputs, packed row-major into a direct buffer
+     */
+    private float[] run(List<ExportData> inputs) throws OrtException {
+        FloatBuffer features = ByteBuffer.allocateDirect(inputs.size() * FEATURES * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        for (ExportData input : inputs) {
+            features.put((float) input.pricePerTon())
+                    .put((float) input.volume())
+                    .put(input.date().getMonthValue())
+                    .put(input.date().getYear())
+                    .put(input.productType().ordinal());
+        }
+        features.flip();
+
+        OrtEnvironment env = OrtEnvironment.getEnvironment();
+        try (OnnxTensor tensor = OnnxTensor.createTensor(env, features, new long[]{inputs.size(), FEATURES});
+             OrtSession.Result result = session.run(Map.of(inputName, tensor))) {
+            FloatBuffer output = ((OnnxTensor) result.get(0)).getFloatBuffer();
+            float[] predicted = new float[inputs.size()];
+            output.get(predicted);
+            return predicted;
+        }
+    }
+
+    private static void checkInputShape(NodeInfo input) throws ModelException {
+        if (!(input.getInfo() instanceof TensorInfo info)) {
+            throw new ModelException("ONNX model input " + input.getName() + " is not a tensor");
+        }
+        long[] shape = info.getShape();
+        if (shape.length != 2 || shape[1] != FEATURES) {
+            throw new ModelException("ONNX model input " + input.getName()
+                    + " must have shape [batch, " + FEATURES + "]");
+        }
+    }
+
+    private PricePrediction demoPrediction(ExportData input) {
+        double basePrice = input.pricePerTon();
+        double predictedPrice = basePrice * (1.0 + (Math.random() * 0.15 - 0.075));
+        double confidence = 0.75 + (Math.random() * 0.2);
+
+        return new PricePrediction(
+            LocalDate.now().plusDays(30),
+            input.productType(),
+            predictedPrice,
+            confidence,
+            modelName,
+            PredictionStatus.COMPLETED
+        );
     }
-    
+
+    private PricePrediction failedPrediction(ExportData input) {
+        return new PricePrediction(
+            LocalDate.now(),
+            input.productType(),
+            0.0,
+            0.0,
+            modelName,
+            PredictionStatus.FAILED
+        );
+    }
+
     @Override
     public void unloadModel() {
-        isLoaded = false;
+        sessionLock.writeLock().lock();
+        try {
+            closeSession();
+            isLoaded = false;
+        } finally {
+            sessionLock.writeLock().unlock();
+        }
         logger.info("ONNX model unloaded");
     }
-    
+
+    private void closeSession() {
+        if (session != null) {
+            try {
+                session.close();
+            } catch (OrtException e) {
+                logger.warning("Failed to close ONNX session: " + e.getMessage());
+            }
+            session = null;
+        }
+    }
+
     @Override
     public double getModelAccuracy() {
         return 0.78;
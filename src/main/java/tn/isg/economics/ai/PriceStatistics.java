@@ -0,0 +1,8 @@
+package tn.isg.economics.ai;
+
+/**
+ * Immutable summary of one product's price window at a point in time
+ */
+record PriceStatistics(int count, double mean, double variance, double oldest, double newest) {
+    static final PriceStatistics EMPTY = new PriceStatistics(0, 0, 0, 0, 0);
+}
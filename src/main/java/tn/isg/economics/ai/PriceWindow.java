@@ -0,0 +1,99 @@
+package tn.isg.economics.ai;
+
+/**
+ * The most recent prices of one product in a fixed-size ring buffer, with
+ * running sums so count, mean, variance and the oldest and newest price are
+ * all O(1). Sums are kept relative to a price from the window, which keeps the
+ * variance accurate for large prices; they are recomputed from the buffer
+ * once per full turn so evictions never accumulate rounding drift. Not
+ * thread-safe.
+ */
+final class PriceWindow {
+    private final double[] prices;
+    private int start;
+    private int size;
+    private double shift = Double.NaN;
+    private double sum;
+    private double sumSquares;
+    private int evictions;
+
+    PriceWindow(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Window capacity must be at least 2: " + capacity);
+        }
+        prices = new double[capacity];
+    }
+
+    void add(double price) {
+        if (Double.isNaN(shift)) {
+            shift = price;
+        }
+        if (size == prices.length) {
+            double evicted = prices[start] - shift;
+            sum -= evicted;
+            sumSquares -= evicted * evicted;
+            prices[start] = price;
+            start = (start + 1) % prices.length;
+            evictions++;
+        } else {
+            prices[(start + size) % prices.length] = price;
+            size++;
+        }
+        double shifted = price - shift;
+        sum += shifted;
+        sumSquares += shifted * shifted;
+        if (evictions == prices.length) {
+            recomputeSums();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    double mean() {
+        return shift + sum / size;
+    }
+
+    /**
+     * Population variance of the prices in the window
+     */
+    double variance() {
+        double meanShifted = sum / size;
+        return Math.max(0.0, sumSquares / size - meanShifted * meanShifted);
+    }
+
+    double oldest() {
+        return prices[start];
+    }
+
+    double newest() {
+        return prices[(start + size - 1) % prices.length];
+    }
+
+    PriceStatistics statistics() {
+        return size == 0 ? PriceStatistics.EMPTY
+                : new PriceStatistics(size, mean(), variance(), oldest(), newest());
+    }
+
+    void clear() {
+        start = 0;
+        size = 0;
+        shift = Double.NaN;
+        sum = 0;
+        sumSquares = 0;
+        evictions = 0;
+    }
+
+    private void recomputeSums() {
+        evictions = 0;
+        shift = prices[start];
+        sum = 0;
+        sumSquares = 0;
+        for (int i = 0; i < size; i++) {
+            double shifted = prices[(start + i) % prices.length] - shift;
+            sum += shifted;
+            sumSquares += shifted * shifted;
+        }
+    }
+}
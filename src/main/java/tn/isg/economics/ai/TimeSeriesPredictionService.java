@@ -2,21 +2,65 @@ package tn.isg.economics.ai;
 
 import tn.isg.economics.annotation.AIService;
 import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketSeasonality;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.ProductType;
 import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.util.ConfigLoader;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Trend and seasonality price forecasts.
+ *
+ * Model state is one PriceWindow per product holding the most recent prices
+ * (ai.timeseries.window of them), updated in O(1) per observed record, so a
+ * forecast costs O(1) however long the history is.
+ *
+ * Safe for concurrent use: writers update the windows under a lock and publish
+ * an immutable ModelSnapshot, which forecasts read without locking. Random
+ * jitter is drawn from a stream keyed by the seed and the row (its batch index
+ * or its fields), so results do not depend on which thread computes them.
+ */
 @AIService(provider = "TimeSeries-Forecast", version = "1.0")
 public class TimeSeriesPredictionService extends BaseAIModel {
-    private Map<String, List<Double>> historicalData = new HashMap<>();
-    private final Random random = new Random(42);
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final PriceWindow[] history = new PriceWindow[ProductType.values().length];
+    private final long seed;
+    private volatile ModelSnapshot snapshot = ModelSnapshot.EMPTY;
+
+    /**
+     * Fitted price statistics per product, indexed by ordinal
+     */
+    private record ModelSnapshot(List<PriceStatistics> byProduct) {
+        static final ModelSnapshot EMPTY = new ModelSnapshot(
+                Collections.nCopies(ProductType.values().length, PriceStatistics.EMPTY));
+
+        PriceStatistics of(ProductType product) {
+            return byProduct.get(product.ordinal());
+        }
+    }
 
     public TimeSeriesPredictionService() {
+        this(ConfigLoader.getTimeSeriesWindow(), 42);
+    }
+
+    /**
+     * @param window most recent prices kept per product
+     * @param seed seed of the random jitter
+     */
+    public TimeSeriesPredictionService(int window, long seed) {
         super("TimeSeries-Price-Forecaster");
+        this.seed = seed;
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new PriceWindow(window);
+        }
     }
 
     @Override
@@ -34,20 +78,21 @@ public class TimeSeriesPredictionService extends BaseAIModel {
         validateInput(input);
 
         try {
-            // Collect historical data for this product
-            String productKey = input.productType().name();
+            ModelSnapshot model = snapshot;
+            ProductType product = input.productType();
 
             // Calculate trend-based prediction (not random!)
             double basePrice = input.pricePerTon();
-            double trendFactor = calculateTrendFactor(productKey, input.date());
+            double trendFactor = calculateTrendFactor(input.date());
             double seasonalityFactor = calculateSeasonalityFactor(input.date().getMonthValue());
             double predictedPrice = basePrice * trendFactor * seasonalityFactor;
 
             // Calculate confidence based on data quality
-            double confidence = calculatePredictionConfidence(productKey);
+            double confidence = calculatePredictionConfidence(model.of(product));
 
             // Predict 30, 60, 90 days in the future
-            LocalDate predictionDate = input.date().plusDays(30 + random.nextInt(60));
+            int days = (int) (uniform(recordKey(input), 0) * 60);
+            LocalDate predictionDate = input.date().plusDays(30 + days);
 
             return new PricePrediction(
                     predictionDate,
@@ -72,110 +117,139 @@ public class TimeSeriesPredictionService extends BaseAIModel {
 
     @Override
     public List<PricePrediction> predictBatch(List<ExportData> inputs) {
-        // Train on historical data first
+        return predictBatch(inputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Add the batch to the history, then forecast every row one month ahead.
+     * Large batches fan out over pool; the result does not depend on the pool.
+     */
+    public List<PricePrediction> predictBatch(List<ExportData> inputs, ForkJoinPool pool) {
+        // Add the batch to the history first
         trainOnHistoricalData(inputs);
+        ModelSnapshot model = snapshot;
+        String batchModelName = modelName + " (1-month forecast)";
 
-        // Generate predictions with time-series logic
-        return inputs.stream()
-                .map(input -> {
-                    // For future prediction, add days to date
-                    LocalDate futureDate = input.date().plusMonths(1); // Predict 1 month ahead
-
-                    double predictedPrice = predictFuturePrice(input, futureDate);
-                    double confidence = 0.75 + (random.nextDouble() * 0.2);
-
-                    return new PricePrediction(
-                            futureDate,
-                            input.productType(),
-                            Math.round(predictedPrice * 100.0) / 100.0,
-                            confidence,
-                            modelName + " (1-month forecast)",
-                            PredictionStatus.COMPLETED
-                    );
-                })
-                .collect(Collectors.toList());
+        IntStream rows = IntStream.range(0, inputs.size());
+        if (inputs.size() < PARALLEL_THRESHOLD) {
+            return rows.mapToObj(i -> forecastNextMonth(model, inputs.get(i), i, batchModelName)).toList();
+        }
+        // A parallel stream started inside a pool task runs on that pool
+        return pool.submit(() -> rows.parallel()
+                .mapToObj(i -> forecastNextMonth(model, inputs.get(i), i, batchModelName))
+                .toList()).join();
     }
 
-    private void trainOnHistoricalData(List<ExportData> data) {
-        // Group historical data by product
-        historicalData = data.stream()
-                .collect(Collectors.groupingBy(
-                        d -> d.productType().name(),
-                        Collectors.mapping(ExportData::pricePerTon, Collectors.toList())
-                ));
+    private PricePrediction forecastNextMonth(ModelSnapshot model, ExportData input, int row, String name) {
+        // For future prediction, add days to date
+        LocalDate futureDate = input.date().plusMonths(1); // Predict 1 month ahead
 
+        double predictedPrice = predictFuturePrice(model, input, futureDate, uniform(row, 1));
+        double confidence = 0.75 + (uniform(row, 0) * 0.2);
+
+        return new PricePrediction(
+                futureDate,
+                input.productType(),
+                Math.round(predictedPrice * 100.0) / 100.0,
+                confidence,
+                name,
+                PredictionStatus.COMPLETED
+        );
+    }
+
+    private void trainOnHistoricalData(List<ExportData> data) {
+        synchronized (history) {
+            for (ExportData record : data) {
+                history[record.productType().ordinal()].add(record.pricePerTon());
+            }
+            publish();
+        }
         logger.info("Trained on " + data.size() + " historical records");
     }
 
-    private double predictFuturePrice(ExportData input, LocalDate futureDate) {
-        String product = input.productType().name();
-        List<Double> prices = historicalData.getOrDefault(product, new ArrayList<>());
+    /**
+     * Add one record's price to the history of its product
+     */
+    public void observe(ExportData data) {
+        synchronized (history) {
+            history[data.productType().ordinal()].add(data.pricePerTon());
+            publish();
+        }
+    }
+
+    /**
+     * Replace the snapshot read by forecasts; callers hold the history lock
+     */
+    private void publish() {
+        List<PriceStatistics> byProduct = new ArrayList<>(history.length);
+        for (PriceWindow prices : history) {
+            byProduct.add(prices.statistics());
+        }
+        snapshot = new ModelSnapshot(List.copyOf(byProduct));
+    }
+
+    /**
+     * Uniform value in [0, 1) for the given draw of a row, from a SplitMix64
+     * stream keyed by the seed and the row
+     */
+    private double uniform(long row, long draw) {
+        long z = mix(mix(seed + row * GOLDEN_GAMMA) + draw * GOLDEN_GAMMA);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
 
-        if (prices.size() < 3) {
+    /**
+     * Row key of a record outside a batch, from its fields
+     */
+    private static long recordKey(ExportData input) {
+        long key = mix(input.date().toEpochDay() * 31 + input.productType().ordinal());
+        return mix(key ^ Double.doubleToLongBits(input.pricePerTon()));
+    }
+
+    private double predictFuturePrice(ModelSnapshot model, ExportData input, LocalDate futureDate, double noise) {
+        PriceStatistics prices = model.of(input.productType());
+
+        if (prices.count() < 3) {
             // Not enough data, use simple projection
             return input.pricePerTon() * (1.0 + (0.05 * (futureDate.getMonthValue() - input.date().getMonthValue())));
         }
 
         // Calculate moving average
-        double movingAvg = prices.stream()
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(input.pricePerTon());
+        double movingAvg = prices.mean();
 
         // Calculate trend (linear regression simplified)
         double trend = calculateLinearTrend(prices);
 
         // Seasonality adjustment
-        double seasonality = getSeasonalityMultiplier(futureDate.getMonthValue(), product);
+        double seasonality = MarketSeasonality.multiplier(input.productType(), futureDate.getMonthValue());
 
         // Predict: base * trend * seasonality
         double prediction = movingAvg * (1.0 + trend) * seasonality;
 
         // Add some randomness for realism
-        prediction *= (0.95 + random.nextDouble() * 0.1);
+        prediction *= (0.95 + noise * 0.1);
 
         return Math.max(prediction, input.pricePerTon() * 0.8); // Don't drop below 80% of current
     }
 
-    private double calculateLinearTrend(List<Double> prices) {
-        if (prices.size() < 2) return 0.0;
+    private double calculateLinearTrend(PriceStatistics prices) {
+        if (prices.count() < 2) return 0.0;
 
-        double first = prices.get(0);
-        double last = prices.get(prices.size() - 1);
-        double periods = prices.size() - 1;
+        double first = prices.oldest();
+        double last = prices.newest();
+        double periods = prices.count() - 1;
 
         return (last - first) / (first * periods);
     }
 
-    private double getSeasonalityMultiplier(int month, String product) {
-        // Seasonality factors based on Tunisian agricultural calendar
-        Map<String, double[]> seasonalityMap = new HashMap<>();
-
-        // Olive Oil: Peak in Nov-Dec (harvest season)
-        seasonalityMap.put("OLIVE_OIL", new double[]{1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.1, 1.2, 1.3, 1.2});
-
-        // Dates: Peak in Sep-Oct
-        seasonalityMap.put("DATES", new double[]{1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.1, 1.2, 1.3, 1.3, 1.1, 1.0});
-
-        // Citrus: Peak in Dec-Feb
-        seasonalityMap.put("CITRUS_FRUITS", new double[]{1.3, 1.3, 1.2, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.1, 1.2});
-
-        // Wheat: Peak in Jun-Aug
-        seasonalityMap.put("WHEAT", new double[]{1.0, 1.0, 1.0, 1.0, 1.1, 1.2, 1.3, 1.3, 1.1, 1.0, 1.0, 1.0});
-
-        double[] multipliers = seasonalityMap.getOrDefault(product,
-                new double[]{1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0});
-
-        return multipliers[month - 1];
-    }
-
-    private double calculateTrendFactor(String product, LocalDate date) {
+    private double calculateTrendFactor(LocalDate date) {
         // Simulate upward trend for recent years
-        int year = date.getYear();
-        if (year >= 2023) return 1.15; // 15% upward trend
-        if (year >= 2021) return 1.10; // 10% upward trend
-        if (year >= 2019) return 1.05; // 5% upward trend
-        return 1.0; // Stable
+        return MarketSeasonality.trendFactor(date.getYear());
     }
 
     private double calculateSeasonalityFactor(int month) {
@@ -192,18 +266,15 @@ public class TimeSeriesPredictionService extends BaseAIModel {
         }
     }
 
-    private double calculatePredictionConfidence(String product) {
-        List<Double> prices = historicalData.getOrDefault(product, new ArrayList<>());
-        if (prices.size() < 10) return 0.6; // Low confidence with little data
+    private double calculatePredictionConfidence(PriceStatistics prices) {
+        if (prices.count() < 10) return 0.6; // Low confidence with little data
 
         // Calculate variance
-        double mean = prices.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double variance = prices.stream()
-                .mapToDouble(p -> Math.pow(p - mean, 2))
-                .average().orElse(0);
+        double mean = prices.mean();
+        double variance = prices.variance();
 
         // More data + less variance = higher confidence
-        double dataConfidence = Math.min(0.3, prices.size() / 100.0);
+        double dataConfidence = Math.min(0.3, prices.count() / 100.0);
         double varianceConfidence = Math.max(0.3, 1.0 - (variance / (mean * 0.5)));
 
         return 0.6 + (dataConfidence * 0.2) + (varianceConfidence * 0.2);
@@ -211,7 +282,12 @@ public class TimeSeriesPredictionService extends BaseAIModel {
 
     @Override
     public void unloadModel() {
-        historicalData.clear();
+        synchronized (history) {
+            for (PriceWindow prices : history) {
+                prices.clear();
+            }
+            publish();
+        }
         isLoaded = false;
         logger.info("Time series model unloaded");
     }
@@ -228,10 +304,12 @@ public class TimeSeriesPredictionService extends BaseAIModel {
     public List<PricePrediction> generateForecast(ExportData input, int monthsAhead) {
         List<PricePrediction> forecasts = new ArrayList<>();
         LocalDate currentDate = input.date();
+        ModelSnapshot model = snapshot;
+        long row = recordKey(input);
 
         for (int i = 1; i <= monthsAhead; i++) {
             LocalDate forecastDate = currentDate.plusMonths(i);
-            double predictedPrice = predictFuturePrice(input, forecastDate);
+            double predictedPrice = predictFuturePrice(model, input, forecastDate, uniform(row, i));
             double confidence = 0.8 - (i * 0.05); // Confidence decreases with time
 
             forecasts.add(new PricePrediction(
@@ -251,7 +329,8 @@ public class TimeSeriesPredictionService extends BaseAIModel {
      * Get prediction for specific future date
      */
     public PricePrediction predictForDate(ExportData input, LocalDate futureDate) {
-        double predictedPrice = predictFuturePrice(input, futureDate);
+        double noise = uniform(recordKey(input), futureDate.toEpochDay());
+        double predictedPrice = predictFuturePrice(snapshot, input, futureDate, noise);
         long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(input.date(), futureDate);
         double confidence = 0.8 - (daysBetween / 365.0 * 0.3); // Lower confidence for distant future
 
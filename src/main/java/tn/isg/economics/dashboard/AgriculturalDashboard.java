@@ -1,6 +1,8 @@
 package tn.isg.economics.dashboard;
 
 import tn.isg.economics.dashboard.components.ChartPanel;
+import tn.isg.economics.dashboard.model.DashboardStatistics;
+import tn.isg.economics.dashboard.view.DashboardView;
 
 import javax.swing.*;
 import javax.swing.Timer;
@@ -11,9 +13,16 @@ import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.util.*;
 
-public class AgriculturalDashboard extends JFrame {
+/**
+ * Main dashboard window. It is also the DashboardView of the controller that
+ * feeds it live predictions: statistics update the metric cards and the
+ * status bar in place, without opening dialogs.
+ */
+public class AgriculturalDashboard extends JFrame implements DashboardView {
     private JTextArea reportArea;
     private JLabel statusLabel;
+    private final JLabel[] metricValues = new JLabel[4];
+    private final JLabel[] metricNotes = new JLabel[4];
     private ChartPanel currentChart;
     private JPanel chartContainer;
     private String currentChartType = "bar";
@@ -247,6 +256,8 @@ public AgriculturalDashboard() {
             metricPanel.add(title, BorderLayout.NORTH);
             metricPanel.add(value, BorderLayout.CENTER);
             metricPanel.add(change, BorderLayout.SOUTH);
+            metricValues[i] = value;
+            metricNotes[i] = change;
 
             panel.add(metricPanel);
         }
@@ -993,12 +1004,79 @@ public AgriculturalDashboard() {
         return sb.toString();
     }
 
+    @Override
     public void showMessage(String message) {
         statusLabel.setText("Message: " + message);
         JOptionPane.showMessageDialog(this, message, "Information - TND",
                 JOptionPane.INFORMATION_MESSAGE);
     }
 
+    @Override
+    public void displayStatistics(DashboardStatistics statistics) {
+        metricValues[1].setText(tndFormat.format(statistics.averagePrice()));
+        metricNotes[1].setText(String.format("%,d predictions", statistics.totalPredictions()));
+        metricValues[3].setText(String.format("%.0f%%", statistics.modelAccuracy() * 100));
+        metricNotes[3].setText(String.format("%.0f%% avg confidence", statistics.averageConfidence() * 100));
+        updatePredictionCount(statistics.totalPredictions());
+    }
+
+    @Override
+    public void displayReport(String report) {
+        reportArea.setText(report);
+        statusLabel.setText("Report generated (TND)");
+    }
+
+    @Override
+    public void exportAsCSV(String csvData) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Data as CSV - Tunisian Dinar");
+        fileChooser.setSelectedFile(new java.io.File("tunisian_export_data.csv"));
+
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            try (FileWriter writer = new FileWriter(fileChooser.getSelectedFile())) {
+                writer.write(csvData);
+                statusLabel.setText("Data exported: " + fileChooser.getSelectedFile().getName() + " (TND)");
+            } catch (IOException e) {
+                showError("Error exporting file: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void showError(String error) {
+        statusLabel.setText("Error: " + error);
+        JOptionPane.showMessageDialog(this, error, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    @Override
+    public void updateChart(Object chartData) {
+        if (currentChart != null) {
+            currentChart.repaint();
+        }
+    }
+
+    @Override
+    public void updatePredictionCount(int count) {
+        statusLabel.setText(String.format("Status: %,d predictions | Currency: Tunisian Dinar (TND) | %s",
+                count, LocalDate.now()));
+    }
+
+    @Override
+    public void updateFilterStatus(int filterCount) {
+        statusLabel.setText("Status: " + filterCount + " filters active | Currency: Tunisian Dinar (TND)");
+    }
+
+    @Override
+    public void showLoading(boolean isLoading) {
+        setCursor(Cursor.getPredefinedCursor(isLoading ? Cursor.WAIT_CURSOR : Cursor.DEFAULT_CURSOR));
+    }
+
+    @Override
+    public void clearDisplay() {
+        reportArea.setText("");
+        statusLabel.setText("Status: Ready | Currency: Tunisian Dinar (TND) | " + LocalDate.now());
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             AgriculturalDashboard dashboard = new AgriculturalDashboard();
@@ -1,13 +1,22 @@
 package tn.isg.economics.dashboard;
 
+import tn.isg.economics.ai.LLMReportService;
+import tn.isg.economics.dashboard.controller.DashboardController;
+import tn.isg.economics.dashboard.service.StatisticsServiceImpl;
+import tn.isg.economics.data.loader.IncrementalCsvIngestor;
 import tn.isg.economics.data.transformer.FAOSTATDataTransformer;
 import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.service.EconomicIntelligenceService;
+import tn.isg.economics.util.ConfigLoader;
+import tn.isg.economics.util.ExchangeRateTable;
 import tn.isg.economics.ai.TimeSeriesPredictionService;  // Add this line
 import java.util.ArrayList;
 import tn.isg.economics.ai.DJLPredictionService;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 public class DashboardMain {
@@ -22,10 +31,13 @@ public class DashboardMain {
             FAOSTATDataTransformer transformer = new FAOSTATDataTransformer();
 
             String faoDataPath = "datasets/raw/FAOSTAT_data_en_12-20-2025.csv";
-            List<ExportData> faoData = transformer.transformFAOSTATData(faoDataPath);
+            // Reuse the cached transform unless the CSV content or transformer settings changed
+            List<ExportData> faoData = transformer.transformFAOSTATDataCached(faoDataPath);
 
+            boolean pricesInUsd = false;
             if (faoData.isEmpty()) {
                 System.out.println("Warning: No FAO data loaded. Using synthetic data.");
+                pricesInUsd = true;
                 tn.isg.economics.data.generator.SyntheticDataGenerator generator =
                         new tn.isg.economics.data.generator.SyntheticDataGenerator();
                 faoData = generator.generateExportData(100,
@@ -33,19 +45,11 @@ public class DashboardMain {
                         java.time.LocalDate.now());
             }
 
-            // Convert USD to TND (Tunisian Dinar)
+            // Convert USD to TND (Tunisian Dinar) at each record's historical rate.
+            // FAO data is already in TND; only the synthetic fallback is priced in USD.
             System.out.println("2. Converting prices to Tunisian Dinar (TND)...");
-            double usdToTndRate = 3.1; // Approximate exchange rate
-            List<ExportData> tndData = faoData.stream()
-                    .map(export -> new ExportData(
-                            export.date(),
-                            export.productType(),
-                            Math.round(export.pricePerTon() * usdToTndRate * 100.0) / 100.0, // Convert to TND, rounded
-                            export.volume(),
-                            export.destinationCountry(),
-                            export.indicator()
-                    ))
-                    .toList();
+            ExchangeRateTable usdRates = ExchangeRateTable.usdToTnd();
+            List<ExportData> tndData = pricesInUsd ? convertToTnd(faoData, usdRates) : faoData;
 
             System.out.println("Converted " + tndData.size() + " records to TND");
 
@@ -83,8 +87,6 @@ public class DashboardMain {
                 predictions.addAll(forecast);
             }
 
-            predictionService.unloadModel();
-
 // Convert predictions to TND (already in TND from FAOSTATDataTransformer)
             List<PricePrediction> tndPredictions = predictions.stream()
                     .map(pred -> new PricePrediction(
@@ -99,44 +101,59 @@ public class DashboardMain {
 
             System.out.println("Generated " + tndPredictions.size() + " FUTURE price predictions in TND");
             System.out.println("Forecast period: Next 3 months");
-            // 5. Create and show dashboard
+
+            // Keep the forecasts in the prediction history saved across runs
+            EconomicIntelligenceService intelligenceService = EconomicIntelligenceService.builder()
+                    .predictionModel(predictionService)
+                    .reportGenerator(new LLMReportService())
+                    .build();
+            Path historyPath = Path.of(ConfigLoader.getHistorySnapshotPath());
+            int restored = intelligenceService.restoreHistory(historyPath);
+            if (restored > 0) {
+                System.out.println("Restored " + restored + " predictions from " + historyPath);
+            }
+            intelligenceService.recordPredictions(tndPredictions);
+            intelligenceService.persistHistory(historyPath);
+
+            // 5. Create and show dashboard, driven by a controller
             System.out.println("4. Launching dashboard GUI...");
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    // Use AgriculturalDashboard (the working one)
-                    AgriculturalDashboard dashboard = new AgriculturalDashboard();
-                    dashboard.setVisible(true);
-
-                    // Show success message
-                    dashboard.showMessage("Dashboard loaded with " + tndPredictions.size() +
-                            " FAO predictions in Tunisian Dinar");
-
-                    System.out.println("? Dashboard launched successfully!");
-                    System.out.println("\n=== PREDICTION SUMMARY ===");
-                    System.out.println("Currency: Tunisian Dinar (TND)");
-                    System.out.println("Exchange rate: 1 USD = " + usdToTndRate + " TND");
-
-                    // Show summary by product
-                    tndPredictions.stream()
-                            .collect(java.util.stream.Collectors.groupingBy(
-                                    p -> p.productType().name(),
-                                    java.util.stream.Collectors.counting()
-                            ))
-                            .forEach((product, count) -> {
-                                double avgPrice = tndPredictions.stream()
-                                        .filter(p -> p.productType().name().equals(product))
-                                        .mapToDouble(PricePrediction::predictedPrice)
-                                        .average()
-                                        .orElse(0);
-                                System.out.printf("  %s: %d predictions, Average: %,.2f TND/ton%n",
-                                        product, count, avgPrice);
-                            });
-
-                } catch (Exception e) {
-                    System.err.println("Error creating dashboard: " + e.getMessage());
-                    e.printStackTrace();
-                }
+            AgriculturalDashboard[] dashboard = new AgriculturalDashboard[1];
+            SwingUtilities.invokeAndWait(() -> {
+                dashboard[0] = new AgriculturalDashboard();
+                dashboard[0].setVisible(true);
             });
+            DashboardController controller =
+                    new DashboardController(new StatisticsServiceImpl(), dashboard[0], intelligenceService);
+            controller.initializeDashboard(tndPredictions);
+
+            System.out.println("? Dashboard launched successfully!");
+            System.out.println("\n=== PREDICTION SUMMARY ===");
+            System.out.println("Currency: Tunisian Dinar (TND)");
+            System.out.println("Exchange rate: 1 USD = " + usdRates.latestRate() + " TND (latest)");
+
+            // Show summary by product
+            tndPredictions.stream()
+                    .collect(java.util.stream.Collectors.groupingBy(
+                            p -> p.productType().name(),
+                            java.util.stream.Collectors.counting()
+                    ))
+                    .forEach((product, count) -> {
+                        double avgPrice = tndPredictions.stream()
+                                .filter(p -> p.productType().name().equals(product))
+                                .mapToDouble(PricePrediction::predictedPrice)
+                                .average()
+                                .orElse(0);
+                        System.out.printf("  %s: %d predictions, Average: %,.2f TND/ton%n",
+                                product, count, avgPrice);
+                    });
+
+            // 6. Feed rows appended to the raw data directory into the dashboard
+            try {
+                startLiveIngest(controller, intelligenceService, historyPath);
+            } catch (Exception e) {
+                System.err.println("Live ingest not started: " + e.getMessage());
+                predictionService.unloadModel();
+            }
 
         } catch (Exception e) {
             System.err.println("Error in DashboardMain: " + e.getMessage());
@@ -152,4 +169,58 @@ public class DashboardMain {
 
         System.out.println("\n=== Dashboard System Ready ===");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tail the raw data directory: appended export rows are analyzed with the
+     * already loaded model and added to the dashboard through its controller.
+     * On shutdown the ingestor is stopped, the history including live
+     * predictions is saved and the model is released.
+     */
+    private static void startLiveIngest(DashboardController controller,
+                                        EconomicIntelligenceService intelligenceService, Path historyPath)
+            throws IOException {
+        IncrementalCsvIngestor ingestor = new IncrementalCsvIngestor(
+                Path.of(ConfigLoader.getRawDataPath()),
+                Path.of(ConfigLoader.getRawIngestCheckpointPath()),
+                controller::ingestExports);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                ingestor.close();
+            } catch (IOException e) {
+                System.err.println("Error stopping live ingest: " + e.getMessage());
+            }
+            intelligenceService.persistHistory(historyPath);
+            intelligenceService.getPredictionModel().unloadModel();
+        }, "raw-export-ingest-shutdown"));
+        ingestor.start();
+        System.out.println("Watching " + ConfigLoader.getRawDataPath() + " for new export rows");
+    }
+
+
+    /**
+     * Convert USD prices to TND in one batch, each at the rate of its record's date
+     */
+    private static List<ExportData> convertToTnd(List<ExportData> usdData, ExchangeRateTable usdRates) {
+        double[] prices = new double[usdData.size()];
+        int[] days = new int[usdData.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = usdData.get(i).pricePerTon();
+            days[i] = (int) usdData.get(i).date().toEpochDay();
+        }
+        usdRates.convert(prices, days, prices);
+
+        List<ExportData> tndData = new ArrayList<>(prices.length);
+        for (int i = 0; i < prices.length; i++) {
+            ExportData export = usdData.get(i);
+            tndData.add(new ExportData(
+                    export.date(),
+                    export.productType(),
+                    Math.round(prices[i] * 100.0) / 100.0, // Rounded to 2 decimals
+                    export.volume(),
+                    export.destinationCountry(),
+                    export.indicator()
+            ));
+        }
+        return tndData;
+    }
+}
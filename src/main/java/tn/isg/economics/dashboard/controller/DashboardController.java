@@ -4,9 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import tn.isg.economics.dashboard.model.DashboardStatistics;
 import tn.isg.economics.dashboard.service.StatisticsService;
 import tn.isg.economics.dashboard.view.DashboardView;
+import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.service.EconomicIntelligenceService;
 
+import javax.swing.SwingUtilities;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
@@ -15,6 +17,8 @@ import java.util.function.Predicate;
  * MVC Controller for the Agricultural Dashboard.
  * Manages business logic, data flow, and user interactions.
  * Uses the Observer pattern for real-time updates.
+ * Predictions may arrive from a background ingest thread: the prediction and
+ * filter lists are guarded by one lock, and view updates run on the Swing thread.
  */
 @Slf4j
 public class DashboardController {
@@ -22,6 +26,7 @@ public class DashboardController {
     private final DashboardView view;
     private final EconomicIntelligenceService intelligenceService;
 
+    private final Object lock = new Object();
     private List<PricePrediction> currentPredictions;
     private List<Predicate<PricePrediction>> activeFilters;
 
@@ -40,11 +45,13 @@ public class DashboardController {
      * @param initialPredictions Initial price predictions to display
      */
     public void initializeDashboard(List<PricePrediction> initialPredictions) {
-        this.currentPredictions = new ArrayList<>(initialPredictions);
+        synchronized (lock) {
+            this.currentPredictions = new ArrayList<>(initialPredictions);
+        }
         updateStatistics();
         log.info("Dashboard initialized with {} predictions",
-                currentPredictions.size());
-        view.showMessage("Dashboard ready with " + currentPredictions.size() + " predictions");
+                initialPredictions.size());
+        onUiThread(() -> view.showMessage("Dashboard ready with " + initialPredictions.size() + " predictions"));
     }
 
     /**
@@ -52,11 +59,12 @@ public class DashboardController {
      * Demonstrates real-time data updates (Observer pattern).
      */
     public void updateStatistics() {
+        List<PricePrediction> predictions = snapshot();
         DashboardStatistics stats =
-                statisticsService.calculateStatistics(currentPredictions);
-        view.displayStatistics(stats);
+                statisticsService.calculateStatistics(predictions);
+        onUiThread(() -> view.displayStatistics(stats));
         log.debug("Statistics updated for {} predictions",
-                currentPredictions.size());
+                predictions.size());
     }
 
     /**
@@ -65,15 +73,20 @@ public class DashboardController {
      * @param filter Filter predicate to apply
      */
     public void applyFilter(Predicate<PricePrediction> filter) {
-        activeFilters.add(filter);
+        synchronized (lock) {
+            activeFilters.add(filter);
+        }
+        List<PricePrediction> predictions = snapshot();
         DashboardStatistics filteredStats =
-                statisticsService.calculateFilteredStatistics(currentPredictions, filter);
-        view.displayStatistics(filteredStats);
+                statisticsService.calculateFilteredStatistics(predictions, filter);
         log.info("Filter applied, showing {} filtered predictions",
                 filteredStats.totalPredictions());
-        view.showMessage("Filter applied: " +
-                (currentPredictions.size() - filteredStats.totalPredictions()) +
-                " records filtered out");
+        onUiThread(() -> {
+            view.displayStatistics(filteredStats);
+            view.showMessage("Filter applied: " +
+                    (predictions.size() - filteredStats.totalPredictions()) +
+                    " records filtered out");
+        });
     }
 
     /**
@@ -81,10 +94,12 @@ public class DashboardController {
      * Demonstrates Command pattern for undo functionality.
      */
     public void clearFilters() {
-        activeFilters.clear();
+        synchronized (lock) {
+            activeFilters.clear();
+        }
         updateStatistics();
         log.info("All filters cleared");
-        view.showMessage("All filters cleared");
+        onUiThread(() -> view.showMessage("All filters cleared"));
     }
 
     /**
@@ -94,7 +109,7 @@ public class DashboardController {
     public void generateReport() {
         log.info("Generating comprehensive market intelligence report...");
         try {
-            String report = intelligenceService.generateMarketReport(currentPredictions);
+            String report = intelligenceService.generateMarketReport(snapshot());
             view.displayReport(report);
             log.info("LLM report generated successfully");
             view.showMessage("Market intelligence report generated successfully");
@@ -110,7 +125,7 @@ public class DashboardController {
     public void generateSummaryReport() {
         log.info("Generating executive summary...");
         try {
-            String summary = intelligenceService.generateExecutiveSummary(currentPredictions);
+            String summary = intelligenceService.generateExecutiveSummary(snapshot());
             view.displayReport(summary);
             log.info("Executive summary generated");
         } catch (Exception e) {
@@ -128,6 +143,7 @@ public class DashboardController {
         log.info("Exporting data in {} format", format);
         try {
             String exportedData;
+            List<PricePrediction> currentPredictions = snapshot();
             if ("CSV".equalsIgnoreCase(format)) {
                 exportedData = intelligenceService.exportToCSV(currentPredictions);
                 view.exportAsCSV(exportedData);
@@ -150,21 +166,40 @@ public class DashboardController {
      * @param newPredictions New predictions to add
      */
     public void addPredictions(List<PricePrediction> newPredictions) {
-        currentPredictions.addAll(newPredictions);
+        synchronized (lock) {
+            currentPredictions.addAll(newPredictions);
+        }
         updateStatistics();
         log.info("Added {} new predictions", newPredictions.size());
-        view.showMessage("Added " + newPredictions.size() + " new predictions");
+        onUiThread(() -> view.showMessage("Added " + newPredictions.size() + " new predictions"));
+    }
+
+    /**
+     * Analyze newly ingested exports and add the resulting predictions.
+     * Usable as the sink of an IncrementalCsvIngestor; the view only refreshes
+     * its statistics, without a message per batch.
+     * @param newExports Export records that just arrived
+     */
+    public void ingestExports(List<ExportData> newExports) {
+        List<PricePrediction> predictions = intelligenceService.analyzeExports(newExports);
+        synchronized (lock) {
+            currentPredictions.addAll(predictions);
+        }
+        updateStatistics();
+        log.info("Ingested {} exports, added {} predictions", newExports.size(), predictions.size());
     }
 
     /**
      * Clear all predictions from dashboard.
      */
     public void clearPredictions() {
-        currentPredictions.clear();
-        activeFilters.clear();
+        synchronized (lock) {
+            currentPredictions.clear();
+            activeFilters.clear();
+        }
         updateStatistics();
         log.info("All predictions cleared");
-        view.showMessage("All predictions cleared");
+        onUiThread(() -> view.showMessage("All predictions cleared"));
     }
 
     /**
@@ -172,7 +207,7 @@ public class DashboardController {
      * @return Current statistics
      */
     public DashboardStatistics getCurrentStatistics() {
-        return statisticsService.calculateStatistics(currentPredictions);
+        return statisticsService.calculateStatistics(snapshot());
     }
 
     /**
@@ -180,8 +215,13 @@ public class DashboardController {
      * @return Filtered predictions list
      */
     public List<PricePrediction> getFilteredPredictions() {
-        List<PricePrediction> filtered = new ArrayList<>(currentPredictions);
-        for (Predicate<PricePrediction> filter : activeFilters) {
+        List<PricePrediction> filtered;
+        List<Predicate<PricePrediction>> filters;
+        synchronized (lock) {
+            filtered = new ArrayList<>(currentPredictions);
+            filters = List.copyOf(activeFilters);
+        }
+        for (Predicate<PricePrediction> filter : filters) {
             filtered = filtered.stream().filter(filter).toList();
         }
         return filtered;
@@ -192,7 +232,9 @@ public class DashboardController {
      * @return Number of active filters
      */
     public int getActiveFilterCount() {
-        return activeFilters.size();
+        synchronized (lock) {
+            return activeFilters.size();
+        }
     }
 
     /**
@@ -200,6 +242,28 @@ public class DashboardController {
      * @return Total number of predictions
      */
     public int getTotalPredictionCount() {
-        return currentPredictions.size();
+        synchronized (lock) {
+            return currentPredictions.size();
+        }
+    }
+
+    /**
+     * Copy of the current predictions, safe to read outside the lock
+     */
+    private List<PricePrediction> snapshot() {
+        synchronized (lock) {
+            return new ArrayList<>(currentPredictions);
+        }
+    }
+
+    /**
+     * Run a view update on the Swing event thread
+     */
+    private static void onUiThread(Runnable update) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            update.run();
+        } else {
+            SwingUtilities.invokeLater(update);
+        }
     }
 }
\ No newline at end of file
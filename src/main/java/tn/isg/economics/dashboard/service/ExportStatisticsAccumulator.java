@@ -0,0 +1,118 @@
+package tn.isg.economics.dashboard.service;
+
+import tn.isg.economics.model.CountryDictionary;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ExportDataColumns;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Single-pass accumulator for export-level dashboard figures.
+ * Consumes ExportData one record at a time, so statistics can be computed
+ * over a stream without materializing it. Partial accumulators can be
+ * combined, which makes it usable as a parallel stream collector.
+ * Per-country figures are kept in arrays indexed by {@link CountryDictionary} id.
+ */
+public class ExportStatisticsAccumulator implements Consumer<ExportData> {
+
+    private long count;
+    private double totalVolume;
+    private double totalExportValue;
+    private final CountryDictionary dictionary = CountryDictionary.global();
+    private int[] countryCounts = new int[16];
+    private double[] valueByCountry = new double[16];
+
+    /**
+     * Accumulate every record of the stream, closing it afterwards
+     */
+    public static ExportStatisticsAccumulator of(Stream<ExportData> exports) {
+        try (exports) {
+            return exports.collect(ExportStatisticsAccumulator::new,
+                    ExportStatisticsAccumulator::accept,
+                    ExportStatisticsAccumulator::combine);
+        }
+    }
+
+    @Override
+    public void accept(ExportData export) {
+        double value = export.pricePerTon() * export.volume();
+        count++;
+        totalVolume += export.volume();
+        totalExportValue += value;
+        addCountry(dictionary.idOf(export.destinationCountry()), 1, value);
+    }
+
+    /**
+     * Accumulate every row of a columnar store without materializing records
+     */
+    public ExportStatisticsAccumulator acceptAll(ExportDataColumns columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            double price = columns.pricePerTon(i);
+            double volume = columns.volume(i);
+            count++;
+            totalVolume += volume;
+            totalExportValue += price * volume;
+            addCountry(columns.countryId(i), 1, price * volume);
+        }
+        return this;
+    }
+
+    public ExportStatisticsAccumulator combine(ExportStatisticsAccumulator other) {
+        count += other.count;
+        totalVolume += other.totalVolume;
+        totalExportValue += other.totalExportValue;
+        for (int id = 0; id < other.countryCounts.length; id++) {
+            if (other.countryCounts[id] > 0) {
+                addCountry(id, other.countryCounts[id], other.valueByCountry[id]);
+            }
+        }
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverageVolume() {
+        return count > 0 ? totalVolume / count : 0.0;
+    }
+
+    public double getTotalExportValue() {
+        return totalExportValue;
+    }
+
+    public Map<String, Integer> getCountryDistribution() {
+        Map<String, Integer> distribution = new HashMap<>();
+        for (int id = 0; id < countryCounts.length; id++) {
+            if (countryCounts[id] > 0) {
+                distribution.put(dictionary.name(id), countryCounts[id]);
+            }
+        }
+        return Collections.unmodifiableMap(distribution);
+    }
+
+    public Map<String, Double> getExportByDestination() {
+        Map<String, Double> byDestination = new HashMap<>();
+        for (int id = 0; id < countryCounts.length; id++) {
+            if (countryCounts[id] > 0) {
+                byDestination.put(dictionary.name(id), valueByCountry[id]);
+            }
+        }
+        return Collections.unmodifiableMap(byDestination);
+    }
+
+    private void addCountry(int id, int n, double value) {
+        if (id >= countryCounts.length) {
+            int capacity = Math.max(id + 1, countryCounts.length * 2);
+            countryCounts = Arrays.copyOf(countryCounts, capacity);
+            valueByCountry = Arrays.copyOf(valueByCountry, capacity);
+        }
+        countryCounts[id] += n;
+        valueByCountry[id] += value;
+    }
+}
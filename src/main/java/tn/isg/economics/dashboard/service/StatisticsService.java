@@ -1,10 +1,12 @@
 package tn.isg.economics.dashboard.service;
 
 import tn.isg.economics.dashboard.model.DashboardStatistics;
+import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.PricePrediction;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Service interface for calculating dashboard statistics.
@@ -19,6 +21,16 @@ public interface StatisticsService {
      */
     DashboardStatistics calculateStatistics(List<PricePrediction> predictions);
 
+    /**
+     * Calculate statistics from predictions, taking export figures
+     * (volume, export value, destinations) from a stream of export records.
+     * The export stream is consumed in a single pass and closed.
+     * @param predictions List of price predictions
+     * @param exports Export records backing the predictions
+     * @return Dashboard statistics object
+     */
+    DashboardStatistics calculateStatistics(List<PricePrediction> predictions, Stream<ExportData> exports);
+
     /**
      * Calculate statistics for filtered predictions.
      * Demonstrates functional programming with Predicate.
@@ -2,10 +2,12 @@ package tn.isg.economics.dashboard.service;
 
 import lombok.extern.slf4j.Slf4j;
 import tn.isg.economics.dashboard.model.DashboardStatistics;
+import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.PricePrediction;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of StatisticsService interface.
@@ -17,6 +19,19 @@ public class StatisticsServiceImpl implements StatisticsService {
 
     @Override
     public DashboardStatistics calculateStatistics(List<PricePrediction> predictions) {
+        return buildStatistics(predictions, null);
+    }
+
+    @Override
+    public DashboardStatistics calculateStatistics(List<PricePrediction> predictions,
+                                                   Stream<ExportData> exports) {
+        ExportStatisticsAccumulator exportStats = ExportStatisticsAccumulator.of(exports);
+        log.debug("Accumulated {} export records for statistics", exportStats.getCount());
+        return buildStatistics(predictions, exportStats);
+    }
+
+    private DashboardStatistics buildStatistics(List<PricePrediction> predictions,
+                                                ExportStatisticsAccumulator exportStats) {
         log.debug("Calculating statistics for {} predictions",
                 predictions != null ? predictions.size() : 0);
 
@@ -38,11 +53,13 @@ public class StatisticsServiceImpl implements StatisticsService {
         Map<String, Long> confidenceDistribution = getConfidenceDistribution(predictions);
         Map<String, Double> monthlyTrends = getMonthlyTrends(predictions);
         Map<String, Double> quarterlyTrends = getQuarterlyTrends(predictions);
-        Map<String, Integer> countryDistribution = getCountryDistribution(predictions);
+        Map<String, Integer> countryDistribution = exportStats != null ?
+                exportStats.getCountryDistribution() : getCountryDistribution(predictions);
 
         // Calculate performance metrics
         double stdDev = calculateStandardDeviation(predictions);
-        double totalExportValue = calculateTotalExportValue(predictions);
+        double totalExportValue = exportStats != null ?
+                exportStats.getTotalExportValue() : calculateTotalExportValue(predictions);
         double modelAccuracy = calculateModelAccuracy(predictions);
 
         // Count confidence levels
@@ -51,7 +68,8 @@ public class StatisticsServiceImpl implements StatisticsService {
         long lowConfidence = confidenceDistribution.getOrDefault("Low", 0L);
 
         // Calculate average volume (if available in data)
-        double averageVolume = 100.0; // Default value, would come from ExportData
+        double averageVolume = exportStats != null ?
+                exportStats.getAverageVolume() : 100.0; // Default value without ExportData
 
         return DashboardStatistics.builder()
                 .averagePrice(priceStats.getAverage())
@@ -71,7 +89,8 @@ public class StatisticsServiceImpl implements StatisticsService {
                 .lowConfidenceCount((int) lowConfidence)
                 .totalExportValue(totalExportValue)
                 .averageVolume(averageVolume)
-                .exportByDestination(new HashMap<>()) // Would be calculated from ExportData
+                .exportByDestination(exportStats != null ?
+                        exportStats.getExportByDestination() : new HashMap<>())
                 .build();
     }
 
@@ -0,0 +1,24 @@
+package tn.isg.economics.data.cleaner;
+
+import java.util.Map;
+
+/**
+ * Outcome of one cleaning run
+ *
+ * @param rejectedByRule rejected record count per rule name, in rule order; null records count under "null"
+ */
+public record CleaningReport(
+    long inputRecords,
+    long keptRecords,
+    Map<String, Long> rejectedByRule,
+    long elapsedNanos
+) {
+    public long rejectedRecords() {
+        return inputRecords - keptRecords;
+    }
+
+    public String toSummary() {
+        return String.format("%,d records, %,d kept, %,d rejected %s in %.3f s",
+                inputRecords, keptRecords, rejectedRecords(), rejectedByRule, elapsedNanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,67 @@
+package tn.isg.economics.data.cleaner;
+
+import tn.isg.economics.model.ExportData;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A named validity check on export records.
+ *
+ * Rules are bound to the reference date of a cleaning run, so date-dependent
+ * rules read "today" once per run rather than once per record. Records passed
+ * to a rule are never null.
+ *
+ * @param name name under which rejections are counted
+ * @param binder builds the record predicate (true = keep) for a reference date
+ */
+public record CleaningRule(String name, Function<LocalDate, Predicate<ExportData>> binder) {
+
+    /**
+     * Rule that does not depend on the date
+     */
+    public static CleaningRule of(String name, Predicate<ExportData> predicate) {
+        return new CleaningRule(name, today -> predicate);
+    }
+
+    /**
+     * Rule that compares records to the run's reference date
+     */
+    public static CleaningRule dated(String name, BiPredicate<ExportData, LocalDate> predicate) {
+        return new CleaningRule(name, today -> data -> predicate.test(data, today));
+    }
+
+    public Predicate<ExportData> bind(LocalDate today) {
+        return binder.apply(today);
+    }
+
+    /**
+     * Date is not after the reference date
+     */
+    public static CleaningRule notInFuture() {
+        return dated("future-date", (data, today) -> !data.date().isAfter(today));
+    }
+
+    public static CleaningRule positivePrice() {
+        return of("non-positive-price", data -> data.pricePerTon() > 0);
+    }
+
+    public static CleaningRule positiveVolume() {
+        return of("non-positive-volume", data -> data.volume() > 0);
+    }
+
+    public static CleaningRule hasDestination() {
+        return of("empty-destination", data -> data.destinationCountry() != null
+                && !data.destinationCountry().isBlank());
+    }
+
+    /**
+     * The rules DataCleaner applies by default, cheapest first
+     */
+    public static List<CleaningRule> defaults() {
+        return List.of(positivePrice(), positiveVolume(), notInFuture(), hasDestination());
+    }
+}
@@ -0,0 +1,62 @@
+package tn.isg.economics.data.cleaner;
+
+import tn.isg.economics.model.ExportData;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * A rule chain bound to one reference date and fused into a single function
+ * that returns the index of the first failing rule, or -1 when the record is
+ * valid. Index 0 is the implicit null check; rule i is at index i + 1.
+ */
+final class CompiledRules {
+    static final int VALID = -1;
+
+    private final String[] names;
+    private final ToIntFunction<ExportData> chain;
+
+    CompiledRules(List<CleaningRule> rules, LocalDate today) {
+        names = new String[rules.size() + 1];
+        names[0] = "null";
+        ToIntFunction<ExportData> chain = data -> VALID;
+        // Compose from the last rule backwards so rules run in list order
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            names[i + 1] = rules.get(i).name();
+            Predicate<ExportData> rule = rules.get(i).bind(today);
+            ToIntFunction<ExportData> next = chain;
+            int index = i + 1;
+            chain = data -> rule.test(data) ? next.applyAsInt(data) : index;
+        }
+        ToIntFunction<ExportData> rulesChain = chain;
+        this.chain = data -> data == null ? 0 : rulesChain.applyAsInt(data);
+    }
+
+    /**
+     * Index of the first rule the record fails, or VALID
+     */
+    int firstFailure(ExportData data) {
+        return chain.applyAsInt(data);
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * Non-zero counts by rule name, in rule order
+     */
+    Map<String, Long> byName(long[] counts) {
+        Map<String, Long> byName = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (counts[i] > 0) {
+                byName.merge(names[i], counts[i], Long::sum);
+            }
+        }
+        return byName;
+    }
+}
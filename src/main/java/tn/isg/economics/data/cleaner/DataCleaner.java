@@ -4,81 +4,193 @@ import tn.isg.economics.model.ExportData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
+/**
+ * Removes invalid export records.
+ *
+ * Validity is a chain of CleaningRule objects compiled into one fused check per
+ * run, with "today" read once from the clock. Large inputs are cleaned in a
+ * single parallel pass where every subtask counts rejections per rule in its
+ * own array; the partial results are merged in input order. Normalization
+ * fits per-product Welford statistics in that same pass.
+ */
 public class DataCleaner {
     private static final Logger log = LoggerFactory.getLogger(DataCleaner.class);
-    
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final List<CleaningRule> rules;
+    private final Clock clock;
+    private volatile CleaningReport lastReport;
+
+    public DataCleaner() {
+        this(CleaningRule.defaults());
+    }
+
+    public DataCleaner(List<CleaningRule> rules) {
+        this(rules, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock source of the reference date for date rules
+     */
+    public DataCleaner(List<CleaningRule> rules, Clock clock) {
+        this.rules = List.copyOf(rules);
+        this.clock = clock;
+    }
+
     /**
      * Clean export data by removing invalid records
      */
     public List<ExportData> cleanExportData(List<ExportData> rawData) {
+        return clean(rawData, false).kept;
+    }
+
+    /**
+     * Clean the data and normalize what is kept. Cleaning and fitting the
+     * scaler share one pass; a second pass only applies the fitted scaler.
+     */
+    public NormalizationResult cleanAndNormalize(List<ExportData> rawData) {
+        Partial result = clean(rawData, true);
+        FeatureScaler scaler = result.scaler.build();
+        return new NormalizationResult(transform(result.kept, scaler), scaler);
+    }
+
+    private Partial clean(List<ExportData> rawData, boolean fitScaler) {
         log.info("Cleaning {} export records", rawData.size());
-        
-        List<ExportData> cleanedData = new ArrayList<>();
-        int invalidCount = 0;
-        
-        for (ExportData data : rawData) {
-            if (isValidExportData(data)) {
-                cleanedData.add(data);
-            } else {
-                invalidCount++;
-            }
-        }
-        
-        if (invalidCount > 0) {
-            log.warn("Removed {} invalid records during cleaning", invalidCount);
+        long start = System.nanoTime();
+        CompiledRules compiled = new CompiledRules(rules, LocalDate.now(clock));
+
+        Partial result = parallelIfLarge(rawData)
+                .collect(() -> new Partial(compiled, fitScaler), Partial::accept, Partial::combine);
+
+        lastReport = new CleaningReport(rawData.size(), result.kept.size(),
+                compiled.byName(result.rejected), System.nanoTime() - start);
+        if (lastReport.rejectedRecords() > 0) {
+            log.warn("Removed {} invalid records during cleaning: {}",
+                    lastReport.rejectedRecords(), lastReport.rejectedByRule());
         }
-        
-        log.info("Returning {} cleaned records", cleanedData.size());
-        return cleanedData;
+
+        log.info("Returning {} cleaned records", result.kept.size());
+        return result;
     }
-    
+
     /**
-     * Validate export data
+     * Remove repeated records (e.g. from re-delivered files), keeping the first occurrence
      */
-    private boolean isValidExportData(ExportData data) {
-        if (data == null) {
-            log.debug("Skipping null data");
-            return false;
-        }
-        
-        // Check date is not in the future
-        if (data.date().isAfter(LocalDate.now())) {
-            log.debug("Skipping record with future date: {}", data.date());
-            return false;
-        }
-        
-        // Check price is positive
-        if (data.pricePerTon() <= 0) {
-            log.debug("Skipping record with non-positive price: {}", data.pricePerTon());
-            return false;
-        }
-        
-        // Check volume is positive
-        if (data.volume() <= 0) {
-            log.debug("Skipping record with non-positive volume: {}", data.volume());
-            return false;
-        }
-        
-        // Check destination country is not empty
-        if (data.destinationCountry() == null || data.destinationCountry().trim().isEmpty()) {
-            log.debug("Skipping record with empty destination country");
-            return false;
+    public List<ExportData> deduplicate(List<ExportData> data) {
+        return new Deduplicator().deduplicate(data);
+    }
+
+    /**
+     * Remove records whose price is outside their product's IQR or MAD bounds
+     */
+    public List<ExportData> removeOutliers(List<ExportData> data) {
+        return new OutlierFilter().filter(data);
+    }
+
+    /**
+     * Lazily clean a stream of export data, record by record.
+     * Invalid records are dropped as they pass; the count is logged when the stream is closed.
+     */
+    public Stream<ExportData> cleanExportStream(Stream<ExportData> rawData) {
+        CompiledRules compiled = new CompiledRules(rules, LocalDate.now(clock));
+        LongAdder[] rejected = new LongAdder[compiled.size()];
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
         }
-        
-        return true;
+
+        return rawData
+                .filter(data -> {
+                    int failure = compiled.firstFailure(data);
+                    if (failure != CompiledRules.VALID) {
+                        rejected[failure].increment();
+                    }
+                    return failure == CompiledRules.VALID;
+                })
+                .onClose(() -> {
+                    long[] counts = new long[rejected.length];
+                    long total = 0;
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] = rejected[i].sum();
+                        total += counts[i];
+                    }
+                    if (total > 0) {
+                        log.warn("Removed {} invalid records during streaming cleaning: {}",
+                                total, compiled.byName(counts));
+                    }
+                });
+    }
+
+    /**
+     * Report of the last list cleaning run, or null if none ran yet
+     */
+    public CleaningReport getLastReport() {
+        return lastReport;
+    }
+
+    public List<CleaningRule> getRules() {
+        return rules;
     }
-    
+
     /**
-     * Normalize data (future enhancement: normalize prices, etc.)
+     * Per-product min-max and z-score normalized price and volume, with the
+     * fitted scaler. Statistics are computed in one (parallel) pass.
      */
-    public List<ExportData> normalizeData(List<ExportData> data) {
-        // For now, just return the data as-is
-        // Future: Implement normalization (scaling, encoding, etc.)
-        log.info("Normalizing {} records (placeholder)", data.size());
-        return data;
+    public NormalizationResult normalizeData(List<ExportData> data) {
+        log.info("Normalizing {} records", data.size());
+        FeatureScaler scaler = FeatureScaler.fit(data);
+        return new NormalizationResult(transform(data, scaler), scaler);
+    }
+
+    private static List<NormalizedFeatures> transform(List<ExportData> data, FeatureScaler scaler) {
+        return parallelIfLarge(data).map(scaler::transform).toList();
+    }
+
+    private static Stream<ExportData> parallelIfLarge(List<ExportData> data) {
+        return data.size() >= PARALLEL_THRESHOLD ? data.parallelStream() : data.stream();
+    }
+
+    /**
+     * Kept records, per-rule rejection counts and, optionally, scaler statistics of one subtask
+     */
+    private static final class Partial {
+        private final CompiledRules compiled;
+        private final List<ExportData> kept = new ArrayList<>();
+        private final long[] rejected;
+        private final FeatureScaler.Accumulator scaler;
+
+        Partial(CompiledRules compiled, boolean fitScaler) {
+            this.compiled = compiled;
+            this.rejected = new long[compiled.size()];
+            this.scaler = fitScaler ? new FeatureScaler.Accumulator() : null;
+        }
+
+        void accept(ExportData data) {
+            int failure = compiled.firstFailure(data);
+            if (failure == CompiledRules.VALID) {
+                kept.add(data);
+                if (scaler != null) {
+                    scaler.accept(data);
+                }
+            } else {
+                rejected[failure]++;
+            }
+        }
+
+        void combine(Partial other) {
+            kept.addAll(other.kept);
+            for (int i = 0; i < rejected.length; i++) {
+                rejected[i] += other.rejected[i];
+            }
+            if (scaler != null) {
+                scaler.merge(other.scaler);
+            }
+        }
     }
 }
@@ -0,0 +1,313 @@
+package tn.isg.economics.data.cleaner;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.util.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Removes repeated export records, keeping the first occurrence in input order.
+ *
+ * Records are reduced to 64-bit fingerprints of all their fields, so the
+ * working set is a primitive long set rather than boxed records. A first pass
+ * marks the positions of duplicates in a bit set; a second pass emits the
+ * rest. Up to maxInMemory distinct fingerprints are kept in memory; beyond
+ * that, fingerprints are spilled to partition files by their high bits and
+ * each partition is deduplicated on its own. A partition that still holds more
+ * than maxInMemory distinct fingerprints is split again on the next bits, so
+ * memory stays bounded by maxInMemory however much is spilled. Two different
+ * records collide with probability about 2^-64 per pair.
+ */
+public class Deduplicator {
+    private static final Logger log = LoggerFactory.getLogger(Deduplicator.class);
+    private static final int STREAM_BUFFER_BYTES = 1 << 16;
+    private static final int MAX_SPLIT_PARTITIONS = 256;
+
+    private final int maxInMemory;
+    private final int partitions;
+    private final Path spillDirectory;
+    private long lastDuplicates;
+    private boolean lastSpilled;
+    private int lastPartitions;
+
+    /**
+     * Limits from data.cleaner.dedup.max.memory.records and data.cleaner.dedup.spill.partitions
+     */
+    public Deduplicator() {
+        this(ConfigLoader.getDedupMaxInMemoryRecords(), ConfigLoader.getDedupSpillPartitions(),
+                Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param maxInMemory distinct fingerprints held in memory before spilling
+     * @param partitions number of first-level spill partitions (rounded up to a power of two)
+     * @param spillDirectory parent of the temporary spill files
+     */
+    public Deduplicator(int maxInMemory, int partitions, Path spillDirectory) {
+        if (maxInMemory < 1) {
+            throw new IllegalArgumentException("maxInMemory must be at least 1: " + maxInMemory);
+        }
+        this.maxInMemory = maxInMemory;
+        this.partitions = Integer.highestOneBit(Math.max(1, partitions) * 2 - 1);
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Records of data without repeats, in input order
+     */
+    public List<ExportData> deduplicate(List<ExportData> data) {
+        BitSet duplicates = findDuplicates(data.iterator());
+        List<ExportData> unique = new ArrayList<>(data.size() - duplicates.cardinality());
+        for (int i = 0; i < data.size(); i++) {
+            if (!duplicates.get(i)) {
+                unique.add(data.get(i));
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Stream source into sink without repeats, in input order. The source is
+     * opened twice, so it must yield the same records each time (e.g. a file).
+     * @return number of records emitted
+     */
+    public long deduplicate(Supplier<Stream<ExportData>> source, Consumer<ExportData> sink) {
+        BitSet duplicates;
+        try (Stream<ExportData> records = source.get()) {
+            duplicates = findDuplicates(records.iterator());
+        }
+        long emitted = 0;
+        try (Stream<ExportData> records = source.get()) {
+            Iterator<ExportData> it = records.iterator();
+            for (int index = 0; it.hasNext(); index++) {
+                ExportData data = it.next();
+                if (!duplicates.get(index)) {
+                    sink.accept(data);
+                    emitted++;
+                }
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * Duplicates removed by the last run
+     */
+    public long getLastDuplicates() {
+        return lastDuplicates;
+    }
+
+    /**
+     * Whether the last run spilled fingerprints to disk
+     */
+    public boolean wasLastSpilled() {
+        return lastSpilled;
+    }
+
+    /**
+     * Spill partitions deduplicated in memory by the last run, counting splits; 0 if it did not spill
+     */
+    public int getLastSpillPartitions() {
+        return lastPartitions;
+    }
+
+    /**
+     * 64-bit fingerprint of all fields of a record
+     */
+    public static long fingerprint(ExportData data) {
+        long h = 0x9E3779B97F4A7C15L;
+        h = step(h, data.date().toEpochDay());
+        h = step(h, data.productType().ordinal());
+        h = step(h, Double.doubleToLongBits(data.pricePerTon()));
+        h = step(h, Double.doubleToLongBits(data.volume()));
+        String country = data.destinationCountry();
+        if (country != null) {
+            for (int i = 0; i < country.length(); i++) {
+                h = step(h, country.charAt(i));
+            }
+        }
+        h = step(h, country == null ? -1 : country.length());
+        return step(h, data.indicator() == null ? -1 : data.indicator().ordinal());
+    }
+
+    /**
+     * Positions of repeated records; null records are never marked
+     */
+    private BitSet findDuplicates(Iterator<ExportData> records) {
+        BitSet duplicates = new BitSet();
+        LongHashSet seen = new LongHashSet(Math.min(maxInMemory, 1 << 16));
+        SpillFiles spill = null;
+        int index = 0;
+        lastPartitions = 0;
+        try {
+            for (; records.hasNext(); index++) {
+                ExportData data = records.next();
+                if (data == null) {
+                    continue;
+                }
+                long fingerprint = fingerprint(data);
+                if (spill != null) {
+                    spill.write(fingerprint, index);
+                } else if (!seen.add(fingerprint)) {
+                    duplicates.set(index);
+                } else if (seen.size() > maxInMemory) {
+                    spill = new SpillFiles(spillDirectory, 0, partitions);
+                    // Everything seen so far is a first occurrence
+                    for (long firstSeen : seen.toArray()) {
+                        spill.write(firstSeen, -1);
+                    }
+                    seen = null;
+                }
+            }
+            if (spill != null) {
+                spill.resolve(duplicates);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Deduplication spill failed", e);
+        } finally {
+            if (spill != null) {
+                spill.delete();
+            }
+        }
+
+        lastDuplicates = duplicates.cardinality();
+        lastSpilled = spill != null;
+        log.info("Deduplicated {} records: {} duplicates removed{}", index, lastDuplicates,
+                lastSpilled ? " (spilled to " + lastPartitions + " partitions)" : "");
+        return duplicates;
+    }
+
+    private static long step(long h, long value) {
+        long x = (h ^ value) * 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB9FE1A85EC53L;
+        return x ^ (x >>> 33);
+    }
+
+    /**
+     * Partition files of (fingerprint, index) pairs, in input order within each
+     * file. A partition selects fingerprints by the bits after the bitsUsed high
+     * bits already consumed by the partitions above it.
+     */
+    private final class SpillFiles {
+        private final Path directory;
+        private final int bitsUsed;
+        private final int bits;
+        private final Path[] files;
+        private final DataOutputStream[] outputs;
+
+        /**
+         * @param partitions a power of two
+         */
+        SpillFiles(Path parent, int bitsUsed, int partitions) throws IOException {
+            Files.createDirectories(parent);
+            directory = Files.createTempDirectory(parent, "dedup");
+            this.bitsUsed = bitsUsed;
+            this.bits = Math.min(Integer.numberOfTrailingZeros(partitions), Long.SIZE - bitsUsed);
+            files = new Path[1 << bits];
+            outputs = new DataOutputStream[files.length];
+            for (int p = 0; p < files.length; p++) {
+                files[p] = directory.resolve("partition-" + p + ".bin");
+                outputs[p] = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(files[p]), STREAM_BUFFER_BYTES));
+            }
+        }
+
+        void write(long fingerprint, int index) throws IOException {
+            DataOutputStream out = outputs[bits == 0 ? 0 : (int) ((fingerprint << bitsUsed) >>> (Long.SIZE - bits))];
+            out.writeLong(fingerprint);
+            out.writeInt(index);
+        }
+
+        /**
+         * Deduplicate each partition and mark the later occurrences
+         */
+        void resolve(BitSet duplicates) throws IOException {
+            for (int p = 0; p < files.length; p++) {
+                outputs[p].close();
+                resolvePartition(files[p], duplicates);
+                Files.deleteIfExists(files[p]);
+            }
+        }
+
+        /**
+         * Deduplicate one partition in memory; if it holds more than maxInMemory
+         * distinct fingerprints, split it on the next fingerprint bits, into
+         * about entries / maxInMemory parts, and resolve those instead
+         */
+        private void resolvePartition(Path file, BitSet duplicates) throws IOException {
+            long entries = Files.size(file) / (Long.BYTES + Integer.BYTES);
+            int splitBits = Long.SIZE - bitsUsed - bits;
+            LongHashSet seen = new LongHashSet((int) Math.min(entries, maxInMemory + 1L));
+            try (DataInputStream in = openPartition(file)) {
+                for (long e = 0; e < entries; e++) {
+                    long fingerprint = in.readLong();
+                    int index = in.readInt();
+                    if (!seen.add(fingerprint) && index >= 0) {
+                        duplicates.set(index);
+                    } else if (seen.size() > maxInMemory && splitBits > 0) {
+                        break;
+                    }
+                }
+            } catch (EOFException e) {
+                throw new IOException("Truncated spill partition " + file, e);
+            }
+            if (seen.size() <= maxInMemory || splitBits == 0) {
+                lastPartitions++;
+                return;
+            }
+
+            int parts = (int) Math.min(MAX_SPLIT_PARTITIONS, Math.max(2, (entries + maxInMemory - 1) / maxInMemory));
+            SpillFiles split = new SpillFiles(directory, bitsUsed + bits, Integer.highestOneBit(parts * 2 - 1));
+            try {
+                try (DataInputStream in = openPartition(file)) {
+                    for (long e = 0; e < entries; e++) {
+                        split.write(in.readLong(), in.readInt());
+                    }
+                }
+                split.resolve(duplicates);
+            } finally {
+                split.delete();
+            }
+        }
+
+        private DataInputStream openPartition(Path file) throws IOException {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), STREAM_BUFFER_BYTES));
+        }
+
+        void delete() {
+            for (int p = 0; p < files.length; p++) {
+                try {
+                    if (outputs[p] != null) {
+                        outputs[p].close();
+                    }
+                    Files.deleteIfExists(files[p]);
+                } catch (IOException e) {
+                    log.warn("Could not delete spill file {}: {}", files[p], e.getMessage());
+                }
+            }
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                log.warn("Could not delete spill directory {}: {}", directory, e.getMessage());
+            }
+        }
+    }
+}
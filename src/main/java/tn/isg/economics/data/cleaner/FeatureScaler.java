@@ -0,0 +1,151 @@
+package tn.isg.economics.data.cleaner;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ProductType;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Fitted per-product scaling parameters for price and volume.
+ *
+ * Parameters are plain statistics (count, mean, standard deviation, min, max)
+ * that can be stored and reused to normalize inference-time records without
+ * rescanning history. Products not seen while fitting normalize to 0.
+ */
+public final class FeatureScaler {
+    private static final ProductType[] PRODUCTS = ProductType.values();
+
+    private final FeatureStatistics[] price;
+    private final FeatureStatistics[] volume;
+
+    private FeatureScaler(FeatureStatistics[] price, FeatureStatistics[] volume) {
+        this.price = price;
+        this.volume = volume;
+    }
+
+    /**
+     * Parameters of one feature for one product
+     */
+    public record FeatureStatistics(long count, double mean, double stdDev, double min, double max) {
+        public static final FeatureStatistics EMPTY = new FeatureStatistics(0, 0, 0, 0, 0);
+
+        /**
+         * Value scaled to [0, 1] over the fitted range (0 for a constant feature)
+         */
+        public double minMax(double value) {
+            double range = max - min;
+            return range > 0 ? (value - min) / range : 0.0;
+        }
+
+        /**
+         * Standard score of the value (0 for a constant feature)
+         */
+        public double zScore(double value) {
+            return stdDev > 0 ? (value - mean) / stdDev : 0.0;
+        }
+
+        static FeatureStatistics of(RunningStats stats) {
+            return stats.getCount() == 0 ? EMPTY : new FeatureStatistics(stats.getCount(), stats.getMean(),
+                    stats.getStdDev(), stats.getMin(), stats.getMax());
+        }
+    }
+
+    /**
+     * Fit in one pass, in parallel for large inputs
+     */
+    public static FeatureScaler fit(Collection<ExportData> data) {
+        return (data.size() >= 10_000 ? data.parallelStream() : data.stream())
+                .collect(Accumulator::new, Accumulator::accept, Accumulator::merge)
+                .build();
+    }
+
+    /**
+     * Scaler from previously stored parameters
+     */
+    public static FeatureScaler of(Map<ProductType, FeatureStatistics> price, Map<ProductType, FeatureStatistics> volume) {
+        FeatureStatistics[] priceStats = new FeatureStatistics[PRODUCTS.length];
+        FeatureStatistics[] volumeStats = new FeatureStatistics[PRODUCTS.length];
+        for (ProductType product : PRODUCTS) {
+            priceStats[product.ordinal()] = price.getOrDefault(product, FeatureStatistics.EMPTY);
+            volumeStats[product.ordinal()] = volume.getOrDefault(product, FeatureStatistics.EMPTY);
+        }
+        return new FeatureScaler(priceStats, volumeStats);
+    }
+
+    public FeatureStatistics price(ProductType product) {
+        return price[product.ordinal()];
+    }
+
+    public FeatureStatistics volume(ProductType product) {
+        return volume[product.ordinal()];
+    }
+
+    public Map<ProductType, FeatureStatistics> getPriceStatistics() {
+        return toMap(price);
+    }
+
+    public Map<ProductType, FeatureStatistics> getVolumeStatistics() {
+        return toMap(volume);
+    }
+
+    /**
+     * Normalized features of one record against this product's parameters
+     */
+    public NormalizedFeatures transform(ExportData data) {
+        FeatureStatistics p = price[data.productType().ordinal()];
+        FeatureStatistics v = volume[data.productType().ordinal()];
+        return new NormalizedFeatures(data,
+                p.minMax(data.pricePerTon()), p.zScore(data.pricePerTon()),
+                v.minMax(data.volume()), v.zScore(data.volume()));
+    }
+
+    private static Map<ProductType, FeatureStatistics> toMap(FeatureStatistics[] stats) {
+        Map<ProductType, FeatureStatistics> map = new EnumMap<>(ProductType.class);
+        for (ProductType product : PRODUCTS) {
+            if (stats[product.ordinal()].count() > 0) {
+                map.put(product, stats[product.ordinal()]);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Mutable, mergeable fitting state; one per subtask
+     */
+    public static final class Accumulator {
+        private final RunningStats[] price = new RunningStats[PRODUCTS.length];
+        private final RunningStats[] volume = new RunningStats[PRODUCTS.length];
+
+        public Accumulator() {
+            for (int i = 0; i < PRODUCTS.length; i++) {
+                price[i] = new RunningStats();
+                volume[i] = new RunningStats();
+            }
+        }
+
+        public void accept(ExportData data) {
+            int product = data.productType().ordinal();
+            price[product].add(data.pricePerTon());
+            volume[product].add(data.volume());
+        }
+
+        public void merge(Accumulator other) {
+            for (int i = 0; i < PRODUCTS.length; i++) {
+                price[i].merge(other.price[i]);
+                volume[i].merge(other.volume[i]);
+            }
+        }
+
+        public FeatureScaler build() {
+            FeatureStatistics[] priceStats = new FeatureStatistics[PRODUCTS.length];
+            FeatureStatistics[] volumeStats = new FeatureStatistics[PRODUCTS.length];
+            for (int i = 0; i < PRODUCTS.length; i++) {
+                priceStats[i] = FeatureStatistics.of(price[i]);
+                volumeStats[i] = FeatureStatistics.of(volume[i]);
+            }
+            return new FeatureScaler(priceStats, volumeStats);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package tn.isg.economics.data.cleaner;
+
+/**
+ * Open-addressing set of primitive longs with linear probing. Zero is tracked
+ * separately so it can serve as the empty-slot marker. Not thread-safe.
+ */
+final class LongHashSet {
+    private long[] slots;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Add a value; true if it was not present yet
+     */
+    boolean add(long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            size += added ? 1 : 0;
+            return added;
+        }
+        int slot = mix(value) & mask;
+        while (slots[slot] != 0) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = value;
+        if (++size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * All values, in no particular order
+     */
+    long[] toArray() {
+        long[] values = new long[size];
+        int n = 0;
+        if (containsZero) {
+            values[n++] = 0;
+        }
+        for (long value : slots) {
+            if (value != 0) {
+                values[n++] = value;
+            }
+        }
+        return values;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        mask = capacity - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int slot = mix(value) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
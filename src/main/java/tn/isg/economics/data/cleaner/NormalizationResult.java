@@ -0,0 +1,13 @@
+package tn.isg.economics.data.cleaner;
+
+import java.util.List;
+
+/**
+ * Normalized features together with the scaler they were computed with,
+ * for normalizing later records the same way
+ */
+public record NormalizationResult(
+    List<NormalizedFeatures> features,
+    FeatureScaler scaler
+) {
+}
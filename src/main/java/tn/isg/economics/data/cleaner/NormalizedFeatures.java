@@ -0,0 +1,15 @@
+package tn.isg.economics.data.cleaner;
+
+import tn.isg.economics.model.ExportData;
+
+/**
+ * Per-product normalized price and volume of one export record
+ */
+public record NormalizedFeatures(
+    ExportData source,
+    double priceMinMax,
+    double priceZScore,
+    double volumeMinMax,
+    double volumeZScore
+) {
+}
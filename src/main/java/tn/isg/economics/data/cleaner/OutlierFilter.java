@@ -0,0 +1,249 @@
+package tn.isg.economics.data.cleaner;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.util.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Drops records whose price is far outside the usual range of their product,
+ * such as fat-fingered prices or unit mix-ups.
+ *
+ * Bounds come from one QuantileSketch per product, fitted in a single pass of
+ * bounded memory; partitions fitted in parallel are merged. Products with fewer
+ * than MIN_SAMPLES prices are never filtered.
+ */
+public class OutlierFilter {
+    private static final Logger log = LoggerFactory.getLogger(OutlierFilter.class);
+    private static final ProductType[] PRODUCTS = ProductType.values();
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    static final int MIN_SAMPLES = 20;
+    // Scales the MAD to the standard deviation for normally distributed prices
+    private static final double MAD_TO_SIGMA = 1.4826;
+
+    public enum Method {
+        /** Tukey fences: quartiles widened by factor * IQR */
+        IQR,
+        /** Median plus or minus factor * 1.4826 * MAD */
+        MAD;
+
+        static Method parse(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown outlier method: " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Inclusive range of accepted prices
+     */
+    public record Bounds(double lower, double upper) {
+        public static final Bounds UNBOUNDED =
+                new Bounds(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+        public boolean contains(double value) {
+            return value >= lower && value <= upper;
+        }
+    }
+
+    private final Method method;
+    private final double factor;
+    private volatile Map<ProductType, Long> lastFlagged = Map.of();
+
+    /**
+     * Method and factor from data.cleaner.outlier.method and data.cleaner.outlier.factor
+     */
+    public OutlierFilter() {
+        this(Method.parse(ConfigLoader.getOutlierMethod()), ConfigLoader.getOutlierFactor());
+    }
+
+    public OutlierFilter(Method method, double factor) {
+        if (!(factor > 0)) {
+            throw new IllegalArgumentException("Outlier factor must be positive: " + factor);
+        }
+        this.method = method;
+        this.factor = factor;
+    }
+
+    /**
+     * Records of data within their product's bounds, in input order
+     */
+    public List<ExportData> filter(List<ExportData> data) {
+        Bounds[] bounds = bounds(fit(data));
+        Kept kept = parallelIfLarge(data).collect(() -> new Kept(bounds), Kept::accept, Kept::merge);
+        report(data.size(), kept.flagged);
+        return kept.records;
+    }
+
+    /**
+     * Stream source into sink without outliers, in input order. The source is
+     * opened twice (fit, then filter), so it must yield the same records each time.
+     * @return number of records emitted
+     */
+    public long filter(Supplier<Stream<ExportData>> source, Consumer<ExportData> sink) {
+        Bounds[] bounds;
+        try (Stream<ExportData> records = source.get()) {
+            bounds = bounds(records.collect(Sketches::new, Sketches::accept, Sketches::merge));
+        }
+        long[] flagged = new long[PRODUCTS.length];
+        long seen = 0;
+        long emitted = 0;
+        try (Stream<ExportData> records = source.get()) {
+            for (ExportData record : (Iterable<ExportData>) records::iterator) {
+                seen++;
+                int product = record.productType().ordinal();
+                if (bounds[product].contains(record.pricePerTon())) {
+                    sink.accept(record);
+                    emitted++;
+                } else {
+                    flagged[product]++;
+                }
+            }
+        }
+        report(seen, flagged);
+        return emitted;
+    }
+
+    /**
+     * Price sketches of data, fitted in one pass (in parallel for large inputs)
+     */
+    public static Sketches fit(Collection<ExportData> data) {
+        return (data.size() >= PARALLEL_THRESHOLD ? data.parallelStream() : data.stream())
+                .collect(Sketches::new, Sketches::accept, Sketches::merge);
+    }
+
+    /**
+     * Accepted price range per product for the fitted sketches
+     */
+    public Map<ProductType, Bounds> boundsByProduct(Sketches sketches) {
+        Bounds[] bounds = bounds(sketches);
+        Map<ProductType, Bounds> byProduct = new EnumMap<>(ProductType.class);
+        for (ProductType product : PRODUCTS) {
+            byProduct.put(product, bounds[product.ordinal()]);
+        }
+        return byProduct;
+    }
+
+    /**
+     * Records flagged per product by the last run
+     */
+    public Map<ProductType, Long> getLastFlagged() {
+        return lastFlagged;
+    }
+
+    private Bounds[] bounds(Sketches sketches) {
+        Bounds[] bounds = new Bounds[PRODUCTS.length];
+        for (int i = 0; i < PRODUCTS.length; i++) {
+            bounds[i] = bounds(sketches.price[i]);
+        }
+        return bounds;
+    }
+
+    private Bounds bounds(QuantileSketch sketch) {
+        if (sketch.getCount() < MIN_SAMPLES) {
+            return Bounds.UNBOUNDED;
+        }
+        return switch (method) {
+            case IQR -> {
+                double q1 = sketch.quantile(0.25);
+                double q3 = sketch.quantile(0.75);
+                double iqr = q3 - q1;
+                yield new Bounds(q1 - factor * iqr, q3 + factor * iqr);
+            }
+            case MAD -> {
+                double median = sketch.quantile(0.5);
+                double spread = factor * MAD_TO_SIGMA * sketch.medianAbsoluteDeviation();
+                yield new Bounds(median - spread, median + spread);
+            }
+        };
+    }
+
+    private void report(long records, long[] flagged) {
+        Map<ProductType, Long> byProduct = new EnumMap<>(ProductType.class);
+        long total = 0;
+        for (int i = 0; i < flagged.length; i++) {
+            if (flagged[i] > 0) {
+                byProduct.put(PRODUCTS[i], flagged[i]);
+                total += flagged[i];
+            }
+        }
+        lastFlagged = byProduct;
+        if (total > 0) {
+            log.warn("Removed {} of {} records as {} price outliers: {}", total, records, method, byProduct);
+        }
+    }
+
+    private static Stream<ExportData> parallelIfLarge(List<ExportData> data) {
+        return data.size() >= PARALLEL_THRESHOLD ? data.parallelStream() : data.stream();
+    }
+
+    /**
+     * Records within bounds plus per-product flagged counts; each parallel subtask
+     * fills its own and merging in encounter order keeps the input order
+     */
+    private static final class Kept {
+        private final Bounds[] bounds;
+        private final List<ExportData> records = new ArrayList<>();
+        private final long[] flagged = new long[PRODUCTS.length];
+
+        Kept(Bounds[] bounds) {
+            this.bounds = bounds;
+        }
+
+        void accept(ExportData record) {
+            int product = record.productType().ordinal();
+            if (bounds[product].contains(record.pricePerTon())) {
+                records.add(record);
+            } else {
+                flagged[product]++;
+            }
+        }
+
+        void merge(Kept other) {
+            records.addAll(other.records);
+            for (int i = 0; i < flagged.length; i++) {
+                flagged[i] += other.flagged[i];
+            }
+        }
+    }
+
+    /**
+     * One price sketch per product; each parallel subtask fills its own and they are merged
+     */
+    public static final class Sketches {
+        private final QuantileSketch[] price = new QuantileSketch[PRODUCTS.length];
+
+        public Sketches() {
+            for (int i = 0; i < PRODUCTS.length; i++) {
+                price[i] = new QuantileSketch();
+            }
+        }
+
+        public void accept(ExportData data) {
+            price[data.productType().ordinal()].add(data.pricePerTon());
+        }
+
+        public void merge(Sketches other) {
+            for (int i = 0; i < PRODUCTS.length; i++) {
+                price[i].merge(other.price[i]);
+            }
+        }
+
+        public QuantileSketch price(ProductType product) {
+            return price[product.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package tn.isg.economics.data.cleaner;
+
+import java.util.Arrays;
+
+/**
+ * KLL quantile sketch: approximate quantiles of a stream in O(k log(n/k)) memory.
+ *
+ * Values enter level 0. When the sketch is over capacity, the lowest full level
+ * is sorted and every other item (from a random offset) moves up one level with
+ * twice the weight. Sketches built on separate partitions merge level by level,
+ * so they can be built in parallel. Rank error is roughly 1.7 / k. Not
+ * thread-safe; give every subtask its own sketch.
+ */
+public final class QuantileSketch {
+    public static final int DEFAULT_K = 200;
+    private static final double DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    // Kept up to date by append/compress and addLevel so add() needs no level scan
+    private int[] levelCapacities = new int[1];
+    private int capacity;
+    private int retained;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long coinState = 0x9E3779B97F4A7C15L;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8: " + k);
+        }
+        this.k = k;
+        levels[0] = new double[k];
+        updateCapacities();
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (retained > capacity) {
+            compress();
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        while (retained > capacity) {
+            compress();
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Approximate value at quantile q in [0, 1], or NaN if empty
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+        double[][] weighted = sortedItems();
+        double[] values = weighted[0];
+        double[] weights = weighted[1];
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = q * total;
+        double cumulative = 0;
+        for (int i = 0; i < values.length; i++) {
+            cumulative += weights[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Approximate median absolute deviation from the median, or NaN if empty
+     */
+    public double medianAbsoluteDeviation() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double median = quantile(0.5);
+        double[][] weighted = sortedItems();
+        int n = weighted[0].length;
+        double[][] deviations = new double[n][2];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            deviations[i][0] = Math.abs(weighted[0][i] - median);
+            deviations[i][1] = weighted[1][i];
+            total += weighted[1][i];
+        }
+        Arrays.sort(deviations, (a, b) -> Double.compare(a[0], b[0]));
+        double cumulative = 0;
+        for (double[] deviation : deviations) {
+            cumulative += deviation[1];
+            if (cumulative >= total / 2) {
+                return deviation[0];
+            }
+        }
+        return deviations[n - 1][0];
+    }
+
+    /**
+     * Retained values and their weights, sorted by value
+     */
+    private double[][] sortedItems() {
+        int n = retained;
+        double[][] pairs = new double[n][];
+        int p = 0;
+        for (int h = 0; h < levels.length; h++) {
+            double weight = (double) (1L << h);
+            for (int i = 0; i < sizes[h]; i++) {
+                pairs[p++] = new double[]{levels[h][i], weight};
+            }
+        }
+        Arrays.sort(pairs, (a, b) -> Double.compare(a[0], b[0]));
+        double[] values = new double[n];
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = pairs[i][0];
+            weights[i] = pairs[i][1];
+        }
+        return new double[][]{values, weights};
+    }
+
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] >= levelCapacities[h]) {
+                if (h + 1 == levels.length) {
+                    addLevel();
+                }
+                double[] level = levels[h];
+                int size = sizes[h];
+                Arrays.sort(level, 0, size);
+                // An odd item stays behind so the compacted pairs keep the total weight exact
+                int pairs = size / 2;
+                int offset = nextCoin();
+                for (int i = 0; i < pairs; i++) {
+                    append(h + 1, level[2 * i + offset]);
+                }
+                if ((size & 1) == 1) {
+                    level[0] = level[size - 1];
+                    sizes[h] = 1;
+                } else {
+                    sizes[h] = 0;
+                }
+                // The promoted pairs were already counted by append
+                retained -= size - sizes[h];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Level capacities depend on the depth below the top level, so they change only when a level is added
+     */
+    private void updateCapacities() {
+        levelCapacities = new int[levels.length];
+        capacity = 0;
+        for (int h = 0; h < levels.length; h++) {
+            int depth = levels.length - 1 - h;
+            levelCapacities[h] = Math.max(2, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+            capacity += levelCapacities[h];
+        }
+    }
+
+    private void append(int h, double value) {
+        if (sizes[h] == levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], Math.max(4, levels[h].length * 2));
+        }
+        levels[h][sizes[h]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        levels[levels.length - 1] = new double[Math.max(4, k / 2)];
+        updateCapacities();
+    }
+
+    private int nextCoin() {
+        coinState ^= coinState << 13;
+        coinState ^= coinState >>> 7;
+        coinState ^= coinState << 17;
+        return (int) (coinState >>> 63);
+    }
+}
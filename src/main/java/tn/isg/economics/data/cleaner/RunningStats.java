@@ -0,0 +1,82 @@
+package tn.isg.economics.data.cleaner;
+
+/**
+ * Streaming count, mean, variance, min and max of a series, using Welford's
+ * update for numerical stability. Partial results from separate subtasks are
+ * combined with merge (Chan et al.), so statistics can be computed in parallel.
+ * Not thread-safe; give every subtask its own instance.
+ */
+public final class RunningStats {
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Population variance, or 0 with fewer than two values
+     */
+    public double getVariance() {
+        return count > 1 ? m2 / count : 0.0;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Smallest value, or NaN if empty
+     */
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    /**
+     * Largest value, or NaN if empty
+     */
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+}
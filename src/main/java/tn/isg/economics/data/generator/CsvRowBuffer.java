@@ -0,0 +1,108 @@
+package tn.isg.economics.data.generator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Growable ASCII byte buffer for CSV rows, with formatting that avoids
+ * String.format and intermediate Strings.
+ */
+final class CsvRowBuffer {
+    private byte[] bytes;
+    private int length;
+
+    CsvRowBuffer(int capacity) {
+        bytes = new byte[capacity];
+    }
+
+    CsvRowBuffer append(byte[] value) {
+        ensure(value.length);
+        System.arraycopy(value, 0, bytes, length, value.length);
+        length += value.length;
+        return this;
+    }
+
+    /**
+     * Append a copy of bytes [from, to) already in this buffer
+     */
+    CsvRowBuffer appendRange(int from, int to) {
+        ensure(to - from);
+        System.arraycopy(bytes, from, bytes, length, to - from);
+        length += to - from;
+        return this;
+    }
+
+    CsvRowBuffer append(char c) {
+        ensure(1);
+        bytes[length++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Non-negative value with two decimals, rounded half up like "%.2f"
+     */
+    CsvRowBuffer appendFixed2(double value) {
+        long cents = Math.round(value * 100.0);
+        appendLong(cents / 100);
+        ensure(3);
+        int fraction = (int) (cents % 100);
+        bytes[length++] = '.';
+        bytes[length++] = (byte) ('0' + fraction / 10);
+        bytes[length++] = (byte) ('0' + fraction % 10);
+        return this;
+    }
+
+    CsvRowBuffer appendLong(long value) {
+        ensure(20);
+        if (value == 0) {
+            bytes[length++] = '0';
+            return this;
+        }
+        int start = length;
+        for (long v = value; v > 0; v /= 10) {
+            bytes[length++] = (byte) ('0' + v % 10);
+        }
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte t = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = t;
+        }
+        return this;
+    }
+
+    int length() {
+        return length;
+    }
+
+    void clear() {
+        length = 0;
+    }
+
+    ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, length);
+    }
+
+    /**
+     * ISO bytes (yyyy-MM-dd) of every day from start to end inclusive
+     */
+    static byte[][] isoDates(LocalDate start, LocalDate end) {
+        int days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+        byte[][] dates = new byte[days][];
+        for (int i = 0; i < days; i++) {
+            dates[i] = ascii(start.plusDays(i).toString());
+        }
+        return dates;
+    }
+
+    static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
@@ -1,19 +1,65 @@
 package tn.isg.economics.data.generator;
 
+import tn.isg.economics.model.CountryDictionary;
 import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ExportDataColumns;
+import tn.isg.economics.model.MarketSeasonality;
 import tn.isg.economics.model.ProductType;
 import tn.isg.economics.model.MarketIndicator;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.random.RandomGenerator;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class SyntheticDataGenerator {
-    private final Random random = new Random(42);
+    private static final String FRANCE = CountryDictionary.global().canonical("France");
+    private static final String GERMANY = CountryDictionary.global().canonical("Germany");
+
+    private static final String[] CSV_HEADER = {"date", "product_type", "price_per_ton", "volume",
+            "destination_country", "market_indicator"};
+    private static final int STREAM_CHUNK_ROWS = 64 * 1024;
+    private static final ProductType[] PRODUCTS = ProductType.values();
+    private static final byte[][] PRODUCT_BYTES = Arrays.stream(PRODUCTS)
+            .map(product -> CsvRowBuffer.ascii(product.name())).toArray(byte[][]::new);
+    private static final byte[][] INDICATOR_BYTES = Arrays.stream(MarketIndicator.values())
+            .map(indicator -> CsvRowBuffer.ascii(indicator.name())).toArray(byte[][]::new);
+    // Dirty rows: bad date, unknown product, non-numeric price, negative price,
+    // missing trailing fields, non-numeric volume
+    private static final int DIRTY_KINDS = 6;
+    private static final byte[] INVALID_DATE = CsvRowBuffer.ascii("2021-13-45");
+    private static final byte[] UNKNOWN_PRODUCT = CsvRowBuffer.ascii("BANANAS");
+    private static final byte[] NOT_A_NUMBER = CsvRowBuffer.ascii("n/a");
+    
+    private final long seed;
+    private final Random random;
+    
+    public SyntheticDataGenerator() {
+        this(42);
+    }
+    
+    /**
+     * @param seed master seed; equal seeds give identical data
+     */
+    public SyntheticDataGenerator(long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
     
     public List<ExportData> generateExportData(int numRecords, LocalDate startDate, LocalDate endDate) {
         List<ExportData> exportData = new ArrayList<>();
@@ -22,36 +68,215 @@ public class SyntheticDataGenerator {
         long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate);
         
         for (int i = 0; i < numRecords; i++) {
-            LocalDate randomDate = startDate.plusDays(random.nextInt((int) daysBetween + 1));
-            ProductType productType = productTypes[random.nextInt(productTypes.length)];
+            exportData.add(nextRecord(productTypes, startDate, daysBetween));
+        }
+        
+        System.out.println("Generated " + numRecords + " synthetic export records");
+        return exportData;
+    }
+    
+    /**
+     * Generate synthetic export data directly into a columnar store
+     */
+    public ExportDataColumns generateExportColumns(int numRecords, LocalDate startDate, LocalDate endDate) {
+        ExportDataColumns.Builder builder = ExportDataColumns.builder(numRecords);
+        ProductType[] productTypes = ProductType.values();
+        
+        long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate);
+        
+        for (int i = 0; i < numRecords; i++) {
+            builder.add(nextRecord(productTypes, startDate, daysBetween));
+        }
+        
+        System.out.println("Generated " + numRecords + " synthetic export records (columnar)");
+        return builder.build();
+    }
+    
+    private ExportData nextRecord(ProductType[] productTypes, LocalDate startDate, long daysBetween) {
+        LocalDate randomDate = startDate.plusDays(random.nextInt((int) daysBetween + 1));
+        ProductType productType = productTypes[random.nextInt(productTypes.length)];
+        double pricePerTon = samplePrice(productType, random);
+        double volume = 50 + random.nextDouble() * 150;
+        String destinationCountry = random.nextBoolean() ? FRANCE : GERMANY;
+        MarketIndicator indicator = MarketIndicator.values()[random.nextInt(MarketIndicator.values().length)];
+        
+        return new ExportData(randomDate, productType, pricePerTon, volume, destinationCountry, indicator);
+    }
+    
+    private static double samplePrice(ProductType productType, RandomGenerator random) {
+        switch (productType) {
+            case OLIVE_OIL: return 3000 + random.nextDouble() * 1000;
+            case DATES: return 2000 + random.nextDouble() * 1000;
+            case CITRUS_FRUITS: return 1000 + random.nextDouble() * 500;
+            case WHEAT: return 700 + random.nextDouble() * 200;
+            default: return 1000 + random.nextDouble() * 500;
+        }
+    }
+    
+    /**
+     * Generate numRecords rows straight into a CSV file, in parallel, in the
+     * same format as exportToCSV.
+     * Rows are produced in chunks, each from its own SplittableRandom derived
+     * from the master seed and the chunk index, so the file is identical for
+     * any thread count. Workers format chunks to bytes; chunks are written in
+     * order and only a couple per thread are in flight, so memory stays
+     * bounded however many rows are generated.
+     * @return number of bytes written
+     */
+    public long generateExportCSV(Path target, long numRecords, LocalDate startDate, LocalDate endDate)
+            throws IOException {
+        return generateExportCSV(target, numRecords, startDate, endDate, ForkJoinPool.commonPool());
+    }
+    
+    public long generateExportCSV(Path target, long numRecords, LocalDate startDate, LocalDate endDate,
+                                  ForkJoinPool pool) throws IOException {
+        return generateExportCSV(target, WorkloadProfile.uniform(numRecords), startDate, endDate, pool);
+    }
+    
+    /**
+     * Stream a dataset shaped by a workload profile (skew, seasonality,
+     * duplicates, dirty rows, ordering) in the same way as generateExportCSV
+     */
+    public long generateExportCSV(Path target, WorkloadProfile profile, LocalDate startDate, LocalDate endDate)
+            throws IOException {
+        return generateExportCSV(target, profile, startDate, endDate, ForkJoinPool.commonPool());
+    }
+    
+    public long generateExportCSV(Path target, WorkloadProfile profile, LocalDate startDate, LocalDate endDate,
+                                  ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime();
+        StreamPlan plan = StreamPlan.of(profile, startDate, endDate);
+        long numRecords = profile.rows();
+        long chunks = (numRecords + STREAM_CHUNK_ROWS - 1) / STREAM_CHUNK_ROWS;
+        int window = Math.max(2, pool.getParallelism() * 2);
+        
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            written += writeFully(channel, ByteBuffer.wrap(CsvRowBuffer.ascii(String.join(",", CSV_HEADER) + "\r\n")));
             
-            double pricePerTon = 0;
-            switch (productType) {
-                case OLIVE_OIL: pricePerTon = 3000 + random.nextDouble() * 1000; break;
-                case DATES: pricePerTon = 2000 + random.nextDouble() * 1000; break;
-                case CITRUS_FRUITS: pricePerTon = 1000 + random.nextDouble() * 500; break;
-                case WHEAT: pricePerTon = 700 + random.nextDouble() * 200; break;
-                default: pricePerTon = 1000 + random.nextDouble() * 500;
+            ArrayDeque<ForkJoinTask<CsvRowBuffer>> inFlight = new ArrayDeque<>(window);
+            long next = 0;
+            while (next < chunks || !inFlight.isEmpty()) {
+                while (next < chunks && inFlight.size() < window) {
+                    long chunk = next++;
+                    int rows = (int) Math.min(STREAM_CHUNK_ROWS, numRecords - chunk * STREAM_CHUNK_ROWS);
+                    inFlight.add(pool.submit(() -> formatChunk(chunk, rows, plan)));
+                }
+                written += writeFully(channel, inFlight.poll().get().toByteBuffer());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating " + target, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to generate " + target, e.getCause());
+        }
+        
+        System.out.printf("Generated %,d synthetic export records (%s profile) to %s in %.2f s%n",
+                numRecords, profile.name(), target, (System.nanoTime() - start) / 1e9);
+        return written;
+    }
+    
+    /**
+     * Lookup tables shared by all chunks of one generated file
+     */
+    private record StreamPlan(WorkloadProfile profile, byte[][] dates, double[][] priceFactors,
+                              ZipfSampler products, ZipfSampler countries, byte[][] countryBytes) {
+        static StreamPlan of(WorkloadProfile profile, LocalDate startDate, LocalDate endDate) {
+            byte[][] dates = CsvRowBuffer.isoDates(startDate, endDate);
+            double[][] priceFactors = null;
+            if (profile.seasonal()) {
+                priceFactors = new double[PRODUCTS.length][dates.length];
+                for (int day = 0; day < dates.length; day++) {
+                    LocalDate date = startDate.plusDays(day);
+                    double trend = MarketSeasonality.trendFactor(date.getYear());
+                    for (ProductType product : PRODUCTS) {
+                        priceFactors[product.ordinal()][day] =
+                                MarketSeasonality.multiplier(product, date.getMonthValue()) * trend;
+                    }
+                }
+            }
+            byte[][] countryBytes = profile.countries().stream()
+                    .map(country -> CsvRowBuffer.ascii(CountryDictionary.global().canonical(country)))
+                    .toArray(byte[][]::new);
+            return new StreamPlan(profile, dates, priceFactors,
+                    new ZipfSampler(PRODUCTS.length, profile.productSkew()),
+                    new ZipfSampler(countryBytes.length, profile.countrySkew()), countryBytes);
+        }
+    }
+    
+    private CsvRowBuffer formatChunk(long chunk, int rows, StreamPlan plan) {
+        SplittableRandom chunkRandom = new SplittableRandom(seed ^ ((chunk + 1) * 0x9E3779B97F4A7C15L));
+        WorkloadProfile profile = plan.profile();
+        MarketIndicator[] indicators = MarketIndicator.values();
+        byte[][] dates = plan.dates();
+        double duplicateRate = profile.duplicateRate();
+        double defectRate = duplicateRate + profile.dirtyRate();
+        long firstRow = chunk * STREAM_CHUNK_ROWS;
+        
+        CsvRowBuffer out = new CsvRowBuffer(rows * 64);
+        int previousStart = -1;
+        for (int i = 0; i < rows; i++) {
+            int rowStart = out.length();
+            double roll = defectRate > 0 ? chunkRandom.nextDouble() : 1.0;
+            if (roll < duplicateRate && previousStart >= 0) {
+                out.appendRange(previousStart, rowStart);
+                previousStart = rowStart;
+                continue;
             }
+            int dirtyKind = roll >= duplicateRate && roll < defectRate ? chunkRandom.nextInt(DIRTY_KINDS) : -1;
             
-            double volume = 50 + random.nextDouble() * 150;
-            String destinationCountry = random.nextBoolean() ? "France" : "Germany";
-            MarketIndicator indicator = MarketIndicator.values()[random.nextInt(MarketIndicator.values().length)];
+            int day = profile.dateOrdered()
+                    ? (int) ((firstRow + i) * dates.length / profile.rows())
+                    : chunkRandom.nextInt(dates.length);
+            int product = plan.products().sample(chunkRandom);
+            double pricePerTon = samplePrice(PRODUCTS[product], chunkRandom);
+            if (plan.priceFactors() != null) {
+                pricePerTon *= plan.priceFactors()[product][day];
+            }
+            double volume = 50 + chunkRandom.nextDouble() * 150;
+            byte[] country = plan.countryBytes()[plan.countries().sample(chunkRandom)];
+            MarketIndicator indicator = indicators[chunkRandom.nextInt(indicators.length)];
             
-            exportData.add(new ExportData(randomDate, productType, pricePerTon, volume, destinationCountry, indicator));
+            out.append(dirtyKind == 0 ? INVALID_DATE : dates[day]).append(',')
+               .append(dirtyKind == 1 ? UNKNOWN_PRODUCT : PRODUCT_BYTES[product]).append(',');
+            if (dirtyKind == 2) {
+                out.append(NOT_A_NUMBER);
+            } else {
+                (dirtyKind == 3 ? out.append('-') : out).appendFixed2(pricePerTon);
+            }
+            if (dirtyKind != 4) {
+                out.append(',');
+                if (dirtyKind == 5) {
+                    out.append(NOT_A_NUMBER);
+                } else {
+                    out.appendFixed2(volume);
+                }
+                out.append(',').append(country).append(',').append(INDICATOR_BYTES[indicator.ordinal()]);
+            }
+            out.append('\r').append('\n');
+            previousStart = rowStart;
         }
-        
-        System.out.println("Generated " + numRecords + " synthetic export records");
-        return exportData;
-    }    
+        return out;
+    }
+    
+    private static long writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return bytes;
+    }
+    
     /**
      * Export generated data to CSV file
      */
     public void exportToCSV(List<ExportData> exportData, String filePath) throws IOException {
         try (FileWriter writer = new FileWriter(filePath);
              CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT
-                     .withHeader("date", "product_type", "price_per_ton", "volume", 
-                                 "destination_country", "market_indicator"))) {
+                     .withHeader(CSV_HEADER))) {
             
             for (ExportData data : exportData) {
                 csvPrinter.printRecord(
@@ -69,13 +294,24 @@ public class SyntheticDataGenerator {
     }
     
     /**
-     * Generate and save a complete synthetic dataset
+     * Generate and save a complete synthetic dataset shaped by the configured
+     * profile and size (data.synthetic.profile, data.synthetic.rows)
+     */
+    public void generateCompleteDataset(String outputPath) throws IOException {
+        generateCompleteDataset(outputPath, WorkloadProfile.fromConfig());
+    }
+    
+    /**
+     * Generate and save a complete synthetic dataset of numRecords rows shaped by the configured profile
      */
     public void generateCompleteDataset(String outputPath, int numRecords) throws IOException {
+        generateCompleteDataset(outputPath, WorkloadProfile.fromConfig().withRows(numRecords));
+    }
+    
+    private void generateCompleteDataset(String outputPath, WorkloadProfile profile) throws IOException {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusYears(3);
         
-        List<ExportData> exportData = generateExportData(numRecords, startDate, endDate);
-        exportToCSV(exportData, outputPath);
+        generateExportCSV(Path.of(outputPath), profile, startDate, endDate);
     }
 }
@@ -0,0 +1,118 @@
+package tn.isg.economics.data.generator;
+
+import tn.isg.economics.util.ConfigLoader;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Shape of a generated synthetic dataset.
+ *
+ * @param name profile name
+ * @param rows number of rows, duplicates and dirty rows included (at most 100M)
+ * @param productSkew Zipf exponent over ProductType declaration order; 0 is uniform
+ * @param countries destination countries, most frequent first
+ * @param countrySkew Zipf exponent over countries; 0 is uniform
+ * @param seasonal apply MarketSeasonality monthly multipliers and yearly trend to prices
+ * @param duplicateRate share of rows repeating the previous row exactly
+ * @param dirtyRate share of rows with one corrupted field (bad date, unknown product, missing fields, ...)
+ * @param dateOrdered rows in ascending date order instead of shuffled
+ */
+public record WorkloadProfile(String name, long rows, double productSkew, List<String> countries,
+                              double countrySkew, boolean seasonal, double duplicateRate, double dirtyRate,
+                              boolean dateOrdered) {
+    public static final long MAX_ROWS = 100_000_000;
+
+    private static final List<String> TWO_COUNTRIES = List.of("France", "Germany");
+    private static final List<String> DESTINATIONS = List.of(
+            "France", "Italy", "Germany", "Spain", "Libya",
+            "United Kingdom", "Netherlands", "Belgium", "Algeria", "Morocco");
+
+    public WorkloadProfile {
+        if (rows < 0 || rows > MAX_ROWS) {
+            throw new IllegalArgumentException("Rows must be between 0 and " + MAX_ROWS + ": " + rows);
+        }
+        if (countries.isEmpty()) {
+            throw new IllegalArgumentException("At least one destination country is required");
+        }
+        if (duplicateRate < 0 || dirtyRate < 0 || duplicateRate + dirtyRate > 1) {
+            throw new IllegalArgumentException("Duplicate and dirty rates must be non-negative and sum to at most 1");
+        }
+        countries = List.copyOf(countries);
+    }
+
+    /**
+     * Uniform products and dates over France and Germany, all rows valid
+     */
+    public static WorkloadProfile uniform(long rows) {
+        return new WorkloadProfile("uniform", rows, 0, TWO_COUNTRIES, 0, false, 0, 0, false);
+    }
+
+    /**
+     * Production-shaped data: skewed products and destinations, seasonal prices,
+     * a few duplicates and dirty rows, arriving in date order
+     */
+    public static WorkloadProfile production(long rows) {
+        return new WorkloadProfile("production", rows, 1.1, DESTINATIONS, 1.2, true, 0.02, 0.01, true);
+    }
+
+    /**
+     * Heavily skewed products and destinations in shuffled order, all rows valid
+     */
+    public static WorkloadProfile skewed(long rows) {
+        return new WorkloadProfile("skewed", rows, 2.0, DESTINATIONS, 2.0, true, 0, 0, false);
+    }
+
+    /**
+     * Production shape with 10% duplicates and 10% dirty rows, shuffled
+     */
+    public static WorkloadProfile dirty(long rows) {
+        return new WorkloadProfile("dirty", rows, 1.1, DESTINATIONS, 1.2, true, 0.10, 0.10, false);
+    }
+
+    /**
+     * Profile by name (uniform, production, skewed, dirty) and size ("1K", "10M", "250000", ...)
+     */
+    public static WorkloadProfile named(String name, String size) {
+        long rows = parseSize(size);
+        return switch (name.strip().toLowerCase(Locale.ROOT)) {
+            case "uniform" -> uniform(rows);
+            case "production" -> production(rows);
+            case "skewed" -> skewed(rows);
+            case "dirty" -> dirty(rows);
+            default -> throw new IllegalArgumentException("Unknown workload profile: " + name);
+        };
+    }
+
+    /**
+     * Profile set by data.synthetic.profile and data.synthetic.rows
+     */
+    public static WorkloadProfile fromConfig() {
+        return named(ConfigLoader.getSyntheticProfile(), ConfigLoader.getSyntheticRows());
+    }
+
+    public WorkloadProfile withRows(long rows) {
+        return new WorkloadProfile(name, rows, productSkew, countries, countrySkew, seasonal,
+                duplicateRate, dirtyRate, dateOrdered);
+    }
+
+    /**
+     * Row count from a plain number or one with a K or M suffix
+     */
+    public static long parseSize(String size) {
+        String value = size.strip().toUpperCase(Locale.ROOT).replace("_", "");
+        long multiplier = 1;
+        if (value.endsWith("K")) {
+            multiplier = 1_000;
+            value = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("M")) {
+            multiplier = 1_000_000;
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value) * multiplier;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid dataset size: " + size, e);
+        }
+    }
+}
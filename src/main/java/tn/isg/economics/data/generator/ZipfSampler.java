@@ -0,0 +1,44 @@
+package tn.isg.economics.data.generator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent,
+ * from a precomputed cumulative table. An exponent of 0 is uniform.
+ */
+final class ZipfSampler {
+    private final double[] cumulative;
+    private final boolean uniform;
+
+    ZipfSampler(int n, double exponent) {
+        uniform = exponent == 0;
+        cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+        cumulative[n - 1] = 1.0;
+    }
+
+    int sample(RandomGenerator random) {
+        if (uniform) {
+            return random.nextInt(cumulative.length);
+        }
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
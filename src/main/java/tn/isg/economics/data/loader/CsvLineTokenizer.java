@@ -0,0 +1,74 @@
+package tn.isg.economics.data.loader;
+
+/**
+ * Splits a single CSV line held in a char buffer into field ranges without
+ * creating intermediate strings. Fields are trimmed, and quoted fields are
+ * reported without their surrounding quotes.
+ */
+public final class CsvLineTokenizer {
+
+    private CsvLineTokenizer() {
+    }
+
+    /**
+     * Tokenize buf[from, to) into field ranges
+     * @return number of fields written to starts/ends (at most starts.length)
+     */
+    public static int tokenize(char[] buf, int from, int to, int[] starts, int[] ends) {
+        int count = 0;
+        int pos = from;
+
+        while (count < starts.length) {
+            while (pos < to && buf[pos] <= ' ' && buf[pos] != ',') {
+                pos++;
+            }
+
+            int start;
+            int end;
+            if (pos < to && buf[pos] == '"') {
+                start = ++pos;
+                while (pos < to) {
+                    if (buf[pos] == '"') {
+                        if (pos + 1 < to && buf[pos + 1] == '"') {
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                end = pos;
+                while (pos < to && buf[pos] != ',') {
+                    pos++;
+                }
+            } else {
+                start = pos;
+                while (pos < to && buf[pos] != ',') {
+                    pos++;
+                }
+                end = pos;
+                while (end > start && buf[end - 1] <= ' ') {
+                    end--;
+                }
+            }
+
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+
+            if (pos >= to) {
+                break;
+            }
+            pos++; // skip the delimiter
+        }
+        return count;
+    }
+
+    /**
+     * Materialize a field range as a String, collapsing escaped double quotes
+     */
+    public static String value(char[] buf, int start, int end) {
+        String raw = new String(buf, start, end - start);
+        return raw.indexOf('"') >= 0 ? raw.replace("\"\"", "\"") : raw;
+    }
+}
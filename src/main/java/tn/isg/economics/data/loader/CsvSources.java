@@ -0,0 +1,204 @@
+package tn.isg.economics.data.loader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Opens CSV inputs that may be plain, gzip-compressed or inside a zip archive.
+ *
+ * A location is either a file path or "archive.zip!entry/name.csv". Gzip is
+ * detected from the magic number rather than the extension. Entry names are
+ * matched with '\' and '/' treated alike, since archives built on Windows
+ * store backslash separators. Everything is decompressed while it is read,
+ * through large buffers, without temporary files. A leading UTF-8 BOM is
+ * skipped.
+ */
+public final class CsvSources {
+    public static final String ENTRY_SEPARATOR = "!";
+
+    private static final int INPUT_BUFFER_BYTES = 256 * 1024;
+    private static final int INFLATE_BUFFER_BYTES = 64 * 1024;
+    private static final int READER_BUFFER_CHARS = 64 * 1024;
+
+    private CsvSources() {
+    }
+
+    /**
+     * Whether the file, or the archive entry, exists
+     */
+    public static boolean exists(String location) {
+        int separator = archiveSeparator(location);
+        if (separator < 0) {
+            return Files.isRegularFile(Path.of(location));
+        }
+        Path archive = Path.of(location.substring(0, separator));
+        if (!Files.isRegularFile(archive)) {
+            return false;
+        }
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            return findEntry(zip, location.substring(separator + 1)) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * True when the location can be memory-mapped as plain text
+     */
+    public static boolean isPlainFile(String location) throws IOException {
+        return archiveSeparator(location) < 0 && !isGzip(Path.of(location));
+    }
+
+    /**
+     * UTF-8 reader over the decompressed content
+     */
+    public static Reader openReader(String location) throws IOException {
+        return new BufferedReader(new InputStreamReader(openStream(location), StandardCharsets.UTF_8),
+                READER_BUFFER_CHARS);
+    }
+
+    /**
+     * Decompressed byte stream, with any UTF-8 BOM skipped
+     */
+    public static InputStream openStream(String location) throws IOException {
+        int separator = archiveSeparator(location);
+        InputStream raw = separator < 0
+                ? Files.newInputStream(Path.of(location))
+                : openEntry(Path.of(location.substring(0, separator)), location.substring(separator + 1));
+
+        BufferedInputStream in = new BufferedInputStream(raw, INPUT_BUFFER_BYTES);
+        if (startsWith(in, 0x1f, 0x8b)) {
+            in = new BufferedInputStream(new GZIPInputStream(in, INFLATE_BUFFER_BYTES), INPUT_BUFFER_BYTES);
+        }
+        if (startsWith(in, 0xef, 0xbb, 0xbf)) {
+            in.skipNBytes(3);
+        }
+        return in;
+    }
+
+    /**
+     * File on disk holding a location: the file itself, or the archive of a zip entry
+     */
+    public static Path sourceFile(String location) {
+        int separator = archiveSeparator(location);
+        return Path.of(separator < 0 ? location : location.substring(0, separator));
+    }
+
+    /**
+     * File name of the CSV behind a location, without .gz (for naming derived files)
+     */
+    public static String baseName(String location) {
+        String name = location.replace('\\', '/');
+        name = name.substring(name.lastIndexOf('/') + 1);
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+
+    private static int archiveSeparator(String location) {
+        int separator = location.indexOf(ENTRY_SEPARATOR);
+        if (separator < 0) {
+            return -1;
+        }
+        // Only treat '!' as a separator when what precedes it is an existing archive
+        return Files.isRegularFile(Path.of(location.substring(0, separator))) ? separator : -1;
+    }
+
+    private static InputStream openEntry(Path archive, String entryName) throws IOException {
+        ZipFile zip = new ZipFile(archive.toFile());
+        try {
+            ZipEntry entry = findEntry(zip, entryName);
+            if (entry == null) {
+                throw new NoSuchFileException(archive + ENTRY_SEPARATOR + entryName, null,
+                        "CSV entries in archive: " + csvEntryNames(zip));
+            }
+            // Closing the entry stream closes the archive as well
+            return new FilterInputStream(zip.getInputStream(entry)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        zip.close();
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    private static ZipEntry findEntry(ZipFile zip, String entryName) {
+        ZipEntry exact = zip.getEntry(entryName);
+        if (exact != null) {
+            return exact;
+        }
+        String wanted = normalizeEntryName(entryName);
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (normalizeEntryName(entry.getName()).equals(wanted)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Names of the CSV entries in an archive, as stored
+     */
+    private static List<String> csvEntryNames(ZipFile zip) {
+        List<String> names = new ArrayList<>();
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            String name = entry.getName().toLowerCase();
+            if (!entry.isDirectory() && (name.endsWith(".csv") || name.endsWith(".csv.gz"))) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    private static String normalizeEntryName(String name) {
+        String normalized = name.replace('\\', '/');
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized;
+    }
+
+    private static boolean isGzip(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    private static boolean startsWith(BufferedInputStream in, int... magic) throws IOException {
+        in.mark(magic.length);
+        try {
+            for (int b : magic) {
+                if (in.read() != b) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+}
@@ -1,59 +1,96 @@
 package tn.isg.economics.data.loader;
 
 import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ExportDataColumns;
 import tn.isg.economics.model.ProductType;
 import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.util.ConfigLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
-import java.io.FileReader;
+import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.DirectoryStream;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DataLoader {
     private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private volatile IngestReport lastIngestReport;
+    private volatile RejectedRows lastRejectedRows;
+    private volatile List<IngestReport> lastDirectoryReports = List.of();
     
     /**
-     * Load export data from CSV file
+     * Load export data from CSV file (plain, gzip, or "archive.zip!entry.csv").
+     * Rejected rows are counted, and written to a side file in the processed
+     * data directory when data.loader.rejects.file is set.
      */
     public List<ExportData> loadExportDataFromCSV(String filePath) {
+        return loadExportDataFromCSV(filePath, newRejectedRows(filePath));
+    }
+    
+    /**
+     * Load export data from CSV file, reporting rejected rows to rejects (closed afterwards)
+     */
+    public List<ExportData> loadExportDataFromCSV(String filePath, RejectedRows rejects) {
+        lastRejectedRows = rejects;
+        return readCsv(filePath, rejects);
+    }
+    
+    private List<ExportData> readCsv(String filePath, RejectedRows rejects) {
         List<ExportData> exportDataList = new ArrayList<>();
         
-        if (!Files.exists(Path.of(filePath))) {
+        if (!CsvSources.exists(filePath)) {
             log.error("CSV file not found: {}", filePath);
             return exportDataList;
         }
         
-        try (Reader reader = new FileReader(filePath);
+        try (rejects;
+             Reader reader = CsvSources.openReader(filePath);
              CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT
                      .withFirstRecordAsHeader()
                      .withIgnoreHeaderCase()
                      .withTrim())) {
             
             log.info("Loading export data from: {}", filePath);
+            ExportRecordParser parser = ExportRecordParser.forHeaderMap(csvParser.getHeaderMap());
             int recordCount = 0;
             
             for (CSVRecord record : csvParser) {
-                try {
-                    ExportData exportData = parseExportRecord(record);
-                    exportDataList.add(exportData);
+                RowStatus status = parser.tryParse(record::get, record.size());
+                if (status == RowStatus.OK) {
+                    exportDataList.add(parser.lastRecord());
                     recordCount++;
-                } catch (Exception e) {
-                    log.warn("Skipping invalid record at line {}: {}", 
-                            record.getRecordNumber(), e.getMessage());
+                } else {
+                    rejects.reject(status, record.getRecordNumber(), String.join(",", record));
                 }
             }
             
             log.info("Successfully loaded {} export records from {}", recordCount, filePath);
+            if (rejects.getTotal() > 0) {
+                log.warn("Rejected {} invalid records from {}: {}", rejects.getTotal(), filePath, rejects.getCounts());
+            }
             
         } catch (Exception e) {
             log.error("Failed to load CSV file: {}", filePath, e);
@@ -63,33 +100,265 @@ public class DataLoader {
     }
     
     /**
-     * Parse a CSV record into ExportData object
+     * Stream export data from a CSV file one record at a time.
+     * Rows are parsed lazily as the stream is consumed, so memory stays bounded
+     * regardless of file size. The stream must be closed to release the file.
+     * Compressed files are decompressed on the fly.
+     */
+    public Stream<ExportData> streamExportData(Path path) {
+        if (!CsvSources.exists(path.toString())) {
+            log.error("CSV file not found: {}", path);
+            return Stream.empty();
+        }
+        
+        CSVParser csvParser = null;
+        try {
+            csvParser = new CSVParser(CsvSources.openReader(path.toString()), CSVFormat.DEFAULT
+                    .withFirstRecordAsHeader()
+                    .withIgnoreHeaderCase()
+                    .withTrim());
+            log.info("Streaming export data from: {}", path);
+            ExportRecordParser parser = ExportRecordParser.forHeaderMap(csvParser.getHeaderMap());
+            CSVParser openParser = csvParser;
+            RejectedRows rejects = newRejectedRows(path.toString());
+            lastRejectedRows = rejects;
+            
+            Iterator<CSVRecord> records = csvParser.iterator();
+            Spliterator<ExportData> spliterator = new Spliterators.AbstractSpliterator<>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super ExportData> action) {
+                    while (records.hasNext()) {
+                        CSVRecord record = records.next();
+                        RowStatus status = parser.tryParse(record::get, record.size());
+                        if (status != RowStatus.OK) {
+                            rejects.reject(status, record.getRecordNumber(), String.join(",", record));
+                            continue;
+                        }
+                        action.accept(parser.lastRecord());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+            
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                try (rejects) {
+                    openParser.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to open CSV file: {}", path, e);
+            if (csvParser != null) {
+                try {
+                    csvParser.close();
+                } catch (IOException closeError) {
+                    e.addSuppressed(closeError);
+                }
+            }
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Load export data straight into a columnar store.
+     * Rows are streamed into the column builder, so no List of records is held.
+     */
+    public ExportDataColumns loadExportColumns(Path path) {
+        ExportDataColumns.Builder builder = ExportDataColumns.builder();
+        try (Stream<ExportData> exports = streamExportData(path)) {
+            exports.forEach(builder::add);
+        }
+        log.info("Loaded {} export records into columnar store from {}", builder.size(), path);
+        return builder.build();
+    }
+    
+    /**
+     * Load export data using the parallel memory-mapped reader.
+     * Produces the same records in the same order as loadExportDataFromCSV.
+     * Compressed or archived inputs cannot be mapped and are loaded sequentially.
+     */
+    public List<ExportData> loadExportDataParallel(String filePath) {
+        return loadExportDataParallel(filePath, new ParallelCsvLoader());
+    }
+
+    public List<ExportData> loadExportDataParallel(String filePath, ParallelCsvLoader parallelLoader) {
+        return loadExportDataParallel(filePath, parallelLoader, newRejectedRows(filePath));
+    }
+
+    public List<ExportData> loadExportDataParallel(String filePath, ParallelCsvLoader parallelLoader,
+                                                   RejectedRows rejects) {
+        lastRejectedRows = rejects;
+        if (!CsvSources.exists(filePath)) {
+            log.error("CSV file not found: {}", filePath);
+            return new ArrayList<>();
+        }
+
+        try {
+            if (!CsvSources.isPlainFile(filePath)) {
+                log.info("{} is compressed, loading it sequentially", filePath);
+                return loadExportDataFromCSV(filePath, rejects);
+            }
+            List<ExportData> exportDataList;
+            try (rejects) {
+                exportDataList = parallelLoader.load(Path.of(filePath), rejects);
+            }
+            lastIngestReport = parallelLoader.getLastReport();
+            return exportDataList;
+        } catch (Exception e) {
+            log.error("Failed to load CSV file in parallel: {}", filePath, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Load every file in a directory matching a glob (e.g. "*.csv"), merged by date.
+     * Files are parsed concurrently on virtual threads, at most
+     * data.loader.max.concurrent.files at a time, and the per-file results are
+     * k-way merged; records with equal dates keep file-name then row order.
+     * Per-file reports are available from getLastDirectoryReports().
+     */
+    public List<ExportData> loadDirectory(Path directory, String glob) {
+        long startNanos = System.nanoTime();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> matches = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : matches) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to list directory: {}", directory, e);
+            return new ArrayList<>();
+        }
+        files.sort(Comparator.comparing(Path::toString));
+
+        int maxConcurrent = Math.max(1, ConfigLoader.getIntProperty("data.loader.max.concurrent.files",
+                Runtime.getRuntime().availableProcessors()));
+        Semaphore permits = new Semaphore(maxConcurrent);
+        List<Future<List<ExportData>>> futures = new ArrayList<>(files.size());
+        IngestReport[] reports = new IngestReport[files.size()];
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < files.size(); i++) {
+                int index = i;
+                Path file = files.get(i);
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try (RejectedRows rejects = newRejectedRows(file.toString())) {
+                        long fileStart = System.nanoTime();
+                        List<ExportData> records = readCsv(file.toString(), rejects);
+                        records.sort(Comparator.comparing(ExportData::date));
+                        reports[index] = new IngestReport(file.toString(), records.size(), rejects.getTotal(),
+                                Files.size(file), System.nanoTime() - fileStart);
+                        return records;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<List<ExportData>> perFile = new ArrayList<>(futures.size());
+            for (Future<List<ExportData>> future : futures) {
+                perFile.add(future.get());
+            }
+            List<ExportData> merged = mergeByDate(perFile);
+
+            lastDirectoryReports = List.of(reports);
+            long totalBytes = 0;
+            long skipped = 0;
+            for (IngestReport report : reports) {
+                log.info("Directory ingest - {}", report.toSummary());
+                totalBytes += report.bytes();
+                skipped += report.skippedRows();
+            }
+            lastIngestReport = new IngestReport(directory.toString(), merged.size(), skipped, totalBytes,
+                    System.nanoTime() - startNanos);
+            log.info("Loaded {} files from {} ({} at a time) - {}", files.size(), directory, maxConcurrent,
+                    lastIngestReport.toSummary());
+            return merged;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while loading directory: {}", directory);
+            return new ArrayList<>();
+        } catch (ExecutionException e) {
+            log.error("Failed to load directory: {}", directory, e.getCause());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * K-way merge of lists that are each sorted by date; ties go to the earlier list
      */
-//    private ExportData parseExportRecord(CSVRecord record) {
-//        LocalDate date = LocalDate.parse(record.get("date"), DATE_FORMATTER);
-//        ProductType productType = ProductType.valueOf(record.get("product_type").toUpperCase());
-//        double pricePerTon = Double.parseDouble(record.get("price_per_ton"));
-//        double volume = Double.parseDouble(record.get("volume"));
-//        String destinationCountry = record.get("destination_country");
-//        MarketIndicator indicator = MarketIndicator.valueOf(record.get("market_indicator").toUpperCase());
-//
-//        return new ExportData(date, productType, pricePerTon, volume, destinationCountry, indicator);
-//    }
-    private ExportData parseExportRecord(CSVRecord record) {
-        LocalDate date = LocalDate.parse(record.get("date"), DATE_FORMATTER);
-        ProductType productType = ProductType.valueOf(record.get("product_type").toUpperCase());
-
-        // FIX: Handle both comma and dot decimal separators
-        String priceStr = record.get("price_per_ton").replace(',', '.');
-        String volumeStr = record.get("volume").replace(',', '.');
-
-        double pricePerTon = Double.parseDouble(priceStr);
-        double volume = Double.parseDouble(volumeStr);
-        String destinationCountry = record.get("destination_country");
-        MarketIndicator indicator = MarketIndicator.valueOf(record.get("market_indicator").toUpperCase());
-
-        return new ExportData(date, productType, pricePerTon, volume, destinationCountry, indicator);
+    static List<ExportData> mergeByDate(List<List<ExportData>> sortedLists) {
+        int total = 0;
+        for (List<ExportData> list : sortedLists) {
+            total += list.size();
+        }
+        List<ExportData> merged = new ArrayList<>(total);
+
+        // Each cursor is {list index, position}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()), (a, b) -> {
+            int byDate = sortedLists.get(a[0]).get(a[1]).date().compareTo(sortedLists.get(b[0]).get(b[1]).date());
+            return byDate != 0 ? byDate : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<ExportData> list = sortedLists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
     }
+
+    /**
+     * Throughput report of the last parallel or directory load, or null if none ran yet
+     */
+    public IngestReport getLastIngestReport() {
+        return lastIngestReport;
+    }
+
+    /**
+     * Per-file reports of the last loadDirectory call, in file-name order
+     */
+    public List<IngestReport> getLastDirectoryReports() {
+        return lastDirectoryReports;
+    }
+
+    /**
+     * Per-reason reject counts of the last load or stream, or null if none ran yet
+     */
+    public RejectedRows getLastRejectedRows() {
+        return lastRejectedRows;
+    }
+
+    /**
+     * Side file for rows rejected while loading source:
+     * processed/&lt;name&gt;-&lt;hash of the source path&gt;.rejects.csv, so sources
+     * with the same file name in different directories do not share one
+     */
+    public static Path rejectFileFor(String location) {
+        int sourceHash = Path.of(location).toAbsolutePath().normalize().toString().hashCode();
+        return Path.of(ConfigLoader.getProcessedDataPath(),
+                CsvSources.baseName(location) + String.format("-%08x", sourceHash) + ".rejects.csv");
+    }
+
+    /**
+     * Reject counters for source, writing a side file only when data.loader.rejects.file is set
+     */
+    private static RejectedRows newRejectedRows(String location) {
+        return ConfigLoader.isRejectsFileEnabled() ? new RejectedRows(rejectFileFor(location)) : new RejectedRows();
+    }
+
     /**
      * Load sample data for quick testing
      */
@@ -0,0 +1,434 @@
+package tn.isg.economics.data.loader;
+
+import tn.isg.economics.model.CountryDictionary;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.ProductType;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Specialized parser for export CSV rows.
+ *
+ * Column positions are resolved once from the header, and each field is parsed
+ * straight from a char range: yyyy-MM-dd dates to epoch days, comma- or
+ * dot-decimal numbers without String.replace, and enum names through a
+ * precomputed case-insensitive lookup. The only per-row allocations are the
+ * resulting ExportData and its LocalDate; countries resolve to the shared
+ * instance in {@link CountryDictionary} without copying known names.
+ *
+ * The tryParse methods validate without throwing: they return a RowStatus and
+ * leave the accepted record in {@link #lastRecord()}, so rejecting a bad row
+ * costs no stack trace. The parse methods throw IllegalArgumentException instead.
+ *
+ * Instances hold scratch buffers and are not thread-safe; use one per thread.
+ */
+public class ExportRecordParser {
+
+    public static final String[] EXPORT_COLUMNS = {
+            "date", "product_type", "price_per_ton", "volume", "destination_country", "market_indicator"
+    };
+    public static final int DATE = 0;
+    public static final int PRODUCT_TYPE = 1;
+    public static final int PRICE_PER_TON = 2;
+    public static final int VOLUME = 3;
+    public static final int DESTINATION_COUNTRY = 4;
+    public static final int MARKET_INDICATOR = 5;
+
+    /** Returned by {@link #parseEpochDay} for malformed dates */
+    public static final long INVALID_DATE = Long.MIN_VALUE;
+
+    private static final ProductType[] PRODUCTS = ProductType.values();
+    private static final MarketIndicator[] INDICATORS = MarketIndicator.values();
+    private static final char[][] PRODUCT_NAMES = enumNames(PRODUCTS);
+    private static final char[][] INDICATOR_NAMES = enumNames(INDICATORS);
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final int[] columnIndex;
+    private char[] scratch = new char[64];
+    private final int[] fieldStarts = new int[EXPORT_COLUMNS.length];
+    private final int[] fieldEnds = new int[EXPORT_COLUMNS.length];
+    private ExportData lastRecord;
+
+    /**
+     * @param columnIndex position of each EXPORT_COLUMNS entry in the CSV row
+     */
+    public ExportRecordParser(int[] columnIndex) {
+        if (columnIndex.length != EXPORT_COLUMNS.length) {
+            throw new IllegalArgumentException("Expected " + EXPORT_COLUMNS.length + " column indices");
+        }
+        this.columnIndex = columnIndex.clone();
+    }
+
+    /**
+     * Resolve column positions from a commons-csv header map (name to index)
+     */
+    public static ExportRecordParser forHeaderMap(Map<String, Integer> headerMap) {
+        int[] columnIndex = new int[EXPORT_COLUMNS.length];
+        for (int c = 0; c < EXPORT_COLUMNS.length; c++) {
+            columnIndex[c] = -1;
+            for (Map.Entry<String, Integer> entry : headerMap.entrySet()) {
+                if (normalizeHeader(entry.getKey()).equals(EXPORT_COLUMNS[c])) {
+                    columnIndex[c] = entry.getValue();
+                    break;
+                }
+            }
+            if (columnIndex[c] < 0) {
+                throw new IllegalArgumentException("Missing CSV column: " + EXPORT_COLUMNS[c]);
+            }
+        }
+        return new ExportRecordParser(columnIndex);
+    }
+
+    /**
+     * Resolve column positions from a header line held in buf[from, to)
+     */
+    public static ExportRecordParser forHeaderLine(char[] buf, int from, int to) {
+        int[] starts = new int[256];
+        int[] ends = new int[256];
+        int count = CsvLineTokenizer.tokenize(buf, from, to, starts, ends);
+
+        int[] columnIndex = new int[EXPORT_COLUMNS.length];
+        for (int c = 0; c < EXPORT_COLUMNS.length; c++) {
+            columnIndex[c] = -1;
+            for (int f = 0; f < count; f++) {
+                if (normalizeHeader(CsvLineTokenizer.value(buf, starts[f], ends[f])).equals(EXPORT_COLUMNS[c])) {
+                    columnIndex[c] = f;
+                    break;
+                }
+            }
+            if (columnIndex[c] < 0) {
+                throw new IllegalArgumentException("Missing CSV column: " + EXPORT_COLUMNS[c]);
+            }
+        }
+        return new ExportRecordParser(columnIndex);
+    }
+
+    private static String normalizeHeader(String name) {
+        String trimmed = name.strip();
+        if (!trimmed.isEmpty() && trimmed.charAt(0) == '\uFEFF') {
+            trimmed = trimmed.substring(1);
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Fresh parser with the same column layout, for use on another thread
+     */
+    public ExportRecordParser copy() {
+        return new ExportRecordParser(columnIndex);
+    }
+
+    /**
+     * Number of CSV fields a row must have to cover every export column
+     */
+    public int requiredFieldCount() {
+        int max = 0;
+        for (int index : columnIndex) {
+            max = Math.max(max, index);
+        }
+        return max + 1;
+    }
+
+    public int columnIndex(int column) {
+        return columnIndex[column];
+    }
+
+    /**
+     * Parse a tokenized row (field ranges from {@link CsvLineTokenizer})
+     */
+    public ExportData parse(char[] buf, int[] starts, int[] ends, int fieldCount) {
+        if (fieldCount < requiredFieldCount()) {
+            throw new IllegalArgumentException("Row has only " + fieldCount + " fields");
+        }
+        for (int c = 0; c < EXPORT_COLUMNS.length; c++) {
+            fieldStarts[c] = starts[columnIndex[c]];
+            fieldEnds[c] = ends[columnIndex[c]];
+        }
+        return parseFields(buf, fieldStarts, fieldEnds);
+    }
+
+    /**
+     * Validate a tokenized row without throwing; on OK the record is in {@link #lastRecord()}
+     */
+    public RowStatus tryParse(char[] buf, int[] starts, int[] ends, int fieldCount) {
+        lastRecord = null;
+        if (fieldCount < requiredFieldCount()) {
+            return RowStatus.MISSING_FIELDS;
+        }
+        for (int c = 0; c < EXPORT_COLUMNS.length; c++) {
+            fieldStarts[c] = starts[columnIndex[c]];
+            fieldEnds[c] = ends[columnIndex[c]];
+        }
+        return tryParseFields(buf, fieldStarts, fieldEnds);
+    }
+
+    /**
+     * Validate a row given as field strings without throwing
+     * @param fieldCount number of fields in the row, checked before any field is read
+     */
+    public RowStatus tryParse(java.util.function.IntFunction<String> fieldAt, int fieldCount) {
+        lastRecord = null;
+        if (fieldCount < requiredFieldCount()) {
+            return RowStatus.MISSING_FIELDS;
+        }
+        copyFields(fieldAt);
+        return tryParseFields(scratch, fieldStarts, fieldEnds);
+    }
+
+    /**
+     * Record accepted by the last successful tryParse call
+     */
+    public ExportData lastRecord() {
+        return lastRecord;
+    }
+
+    /**
+     * Parse a row given as field strings (e.g. from commons-csv) by copying each
+     * field into a reusable scratch buffer
+     */
+    public ExportData parse(java.util.function.IntFunction<String> fieldAt) {
+        copyFields(fieldAt);
+        return parseFields(scratch, fieldStarts, fieldEnds);
+    }
+
+    private void copyFields(java.util.function.IntFunction<String> fieldAt) {
+        int pos = 0;
+        for (int c = 0; c < EXPORT_COLUMNS.length; c++) {
+            String value = fieldAt.apply(columnIndex[c]);
+            int length = value.length();
+            if (pos + length > scratch.length) {
+                scratch = java.util.Arrays.copyOf(scratch, Math.max(scratch.length * 2, pos + length));
+            }
+            value.getChars(0, length, scratch, pos);
+            fieldStarts[c] = pos;
+            fieldEnds[c] = pos + length;
+            pos += length;
+        }
+    }
+
+    private ExportData parseFields(char[] buf, int[] starts, int[] ends) {
+        RowStatus status = tryParseFields(buf, starts, ends);
+        if (status.isRejected()) {
+            throw new IllegalArgumentException(status.getDescription() + ": "
+                    + field(buf, starts, ends, status.getColumn()));
+        }
+        return lastRecord;
+    }
+
+    private RowStatus tryParseFields(char[] buf, int[] starts, int[] ends) {
+        lastRecord = null;
+        long epochDay = parseEpochDay(buf, starts[DATE], ends[DATE]);
+        if (epochDay == INVALID_DATE) {
+            return RowStatus.INVALID_DATE;
+        }
+        int product = lookup(PRODUCT_NAMES, buf, starts[PRODUCT_TYPE], ends[PRODUCT_TYPE]);
+        if (product < 0) {
+            return RowStatus.UNKNOWN_PRODUCT;
+        }
+        double price = parseDecimal(buf, starts[PRICE_PER_TON], ends[PRICE_PER_TON]);
+        if (Double.isNaN(price)) {
+            return RowStatus.INVALID_PRICE;
+        }
+        if (price < 0) {
+            return RowStatus.NEGATIVE_PRICE;
+        }
+        double volume = parseDecimal(buf, starts[VOLUME], ends[VOLUME]);
+        if (Double.isNaN(volume)) {
+            return RowStatus.INVALID_VOLUME;
+        }
+        int indicator = lookup(INDICATOR_NAMES, buf, starts[MARKET_INDICATOR], ends[MARKET_INDICATOR]);
+        if (indicator < 0) {
+            return RowStatus.UNKNOWN_INDICATOR;
+        }
+        String country = canonicalCountry(buf, starts[DESTINATION_COUNTRY], ends[DESTINATION_COUNTRY]);
+
+        lastRecord = new ExportData(LocalDate.ofEpochDay(epochDay), PRODUCTS[product], price, volume,
+                country, INDICATORS[indicator]);
+        return RowStatus.OK;
+    }
+
+    /**
+     * Shared country instance for a field, unescaping doubled quotes first if present
+     */
+    static String canonicalCountry(char[] buf, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '"') {
+                return CountryDictionary.global().canonical(CsvLineTokenizer.value(buf, start, end));
+            }
+        }
+        return CountryDictionary.global().canonical(buf, start, end);
+    }
+
+    private static String field(char[] buf, int[] starts, int[] ends, int column) {
+        return new String(buf, starts[column], ends[column] - starts[column]);
+    }
+
+    // ---- Field parsers ----
+
+    /**
+     * Parse a strict yyyy-MM-dd date to its epoch day, or INVALID_DATE
+     */
+    public static long parseEpochDay(char[] buf, int start, int end) {
+        if (end - start != 10 || buf[start + 4] != '-' || buf[start + 7] != '-') {
+            return INVALID_DATE;
+        }
+        int year = digits(buf, start, 4);
+        int month = digits(buf, start + 5, 2);
+        int day = digits(buf, start + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_DATE;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    private static int digits(char[] buf, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Same proleptic Gregorian arithmetic as LocalDate.toEpochDay
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - 719528; // days from 0000-01-01 to 1970-01-01
+    }
+
+    /**
+     * Parse a decimal number using '.' or ',' as separator, or NaN if malformed.
+     * Values with up to 15-16 significant digits take an exact fast path;
+     * anything longer or with an exponent falls back to Double.parseDouble.
+     */
+    public static double parseDecimal(char[] buf, int start, int end) {
+        int pos = start;
+        if (pos >= end) {
+            return Double.NaN;
+        }
+        boolean negative = false;
+        if (buf[pos] == '-' || buf[pos] == '+') {
+            negative = buf[pos] == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        int digitCount = 0;
+        boolean seenSeparator = false;
+        for (; pos < end; pos++) {
+            char c = buf[pos];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digitCount++;
+                if (seenSeparator) {
+                    scale++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return slowParse(buf, start, end);
+                }
+            } else if ((c == '.' || c == ',') && !seenSeparator) {
+                seenSeparator = true;
+            } else if (c == 'e' || c == 'E') {
+                return slowParse(buf, start, end);
+            } else {
+                return Double.NaN;
+            }
+        }
+
+        if (digitCount == 0) {
+            return Double.NaN;
+        }
+        if (scale >= POWERS_OF_TEN.length) {
+            return slowParse(buf, start, end);
+        }
+        double value = scale == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static double slowParse(char[] buf, int start, int end) {
+        try {
+            return Double.parseDouble(new String(buf, start, end - start).replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Case-insensitive ASCII lookup of an enum name, returning its ordinal or -1
+     */
+    private static int lookup(char[][] names, char[] buf, int start, int end) {
+        int length = end - start;
+        outer:
+        for (int ordinal = 0; ordinal < names.length; ordinal++) {
+            char[] name = names[ordinal];
+            if (name.length != length) {
+                continue;
+            }
+            for (int i = 0; i < length; i++) {
+                char c = buf[start + i];
+                if (c >= 'a' && c <= 'z') {
+                    c -= 32;
+                }
+                if (c != name[i]) {
+                    continue outer;
+                }
+            }
+            return ordinal;
+        }
+        return -1;
+    }
+
+    public static ProductType lookupProductType(char[] buf, int start, int end) {
+        int ordinal = lookup(PRODUCT_NAMES, buf, start, end);
+        return ordinal >= 0 ? PRODUCTS[ordinal] : null;
+    }
+
+    public static MarketIndicator lookupIndicator(char[] buf, int start, int end) {
+        int ordinal = lookup(INDICATOR_NAMES, buf, start, end);
+        return ordinal >= 0 ? INDICATORS[ordinal] : null;
+    }
+
+    private static char[][] enumNames(Enum<?>[] values) {
+        char[][] names = new char[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().toCharArray();
+        }
+        return names;
+    }
+}
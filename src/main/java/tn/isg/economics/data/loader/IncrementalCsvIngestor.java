@@ -0,0 +1,347 @@
+package tn.isg.economics.data.loader;
+
+import tn.isg.economics.model.ExportData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Tails export CSV files in a directory and delivers only newly appended rows.
+ *
+ * A byte offset is kept per file, pointing just past the last complete line
+ * that was delivered; a partially written trailing line is left for the next
+ * pass. Offsets are checkpointed to a properties file after each delivery, so
+ * a restart resumes where the previous run stopped. Delivery happens before the
+ * checkpoint is written: after a crash the last batch may be delivered again,
+ * but no row is lost. Files whose header lacks the export columns are ignored,
+ * and a file that shrinks is treated as replaced and read from the start.
+ */
+public class IncrementalCsvIngestor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(IncrementalCsvIngestor.class);
+
+    private static final int MAX_READ_BYTES = 64 * 1024 * 1024;
+    private static final int HEADER_SCAN_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final Path checkpointFile;
+    private final Consumer<List<ExportData>> sink;
+
+    private final Map<String, Long> offsets = new HashMap<>();
+    private final Map<String, ExportRecordParser> parsers = new HashMap<>();
+    private final Set<String> unsupported = new HashSet<>();
+    private final int[] starts = new int[256];
+    private final int[] ends = new int[256];
+    private final RejectedRows rejects = new RejectedRows();
+
+    private volatile WatchService watchService;
+    private Thread watcherThread;
+
+    public IncrementalCsvIngestor(Path directory, Path checkpointFile, Consumer<List<ExportData>> sink)
+            throws IOException {
+        this.directory = directory;
+        this.checkpointFile = checkpointFile;
+        this.sink = sink;
+        loadCheckpoint();
+    }
+
+    /**
+     * Catch up on every CSV file in the directory, then watch it for changes
+     * on a daemon thread until {@link #close()} is called
+     */
+    public synchronized void start() throws IOException {
+        if (watcherThread != null) {
+            throw new IllegalStateException("Ingestor already started");
+        }
+        Files.createDirectories(directory);
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        pollAll();
+
+        watcherThread = new Thread(this::watchLoop, "raw-export-ingest");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("Watching {} for appended export rows", directory);
+    }
+
+    /**
+     * Ingest appended rows from every CSV file in the directory
+     * @return number of records delivered
+     */
+    public synchronized long pollAll() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long delivered = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path file : files) {
+                delivered += ingest(file);
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Ingest the rows appended to one file since its checkpointed offset
+     * @return number of records delivered
+     */
+    public synchronized long ingest(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (unsupported.contains(name) || !Files.isRegularFile(file)) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = offsets.getOrDefault(name, 0L);
+            if (size < offset) {
+                log.info("{} shrank from {} to {} bytes, reading it again from the start", name, offset, size);
+                offset = 0;
+                parsers.remove(name);
+            }
+
+            ExportRecordParser parser = parsers.get(name);
+            if (parser == null) {
+                long headerEnd = findHeaderEnd(channel, size);
+                if (headerEnd < 0) {
+                    return 0; // header not complete yet
+                }
+                char[] header = readChars(channel, 0, headerEnd);
+                try {
+                    parser = ExportRecordParser.forHeaderLine(header, 0, header.length);
+                } catch (IllegalArgumentException e) {
+                    unsupported.add(name);
+                    log.warn("Ignoring {}: {}", name, e.getMessage());
+                    return 0;
+                }
+                parsers.put(name, parser);
+                offset = Math.max(offset, headerEnd + 1);
+            }
+
+            long delivered = 0;
+            while (offset < size) {
+                int length = (int) Math.min(size - offset, MAX_READ_BYTES);
+                ByteBuffer bytes = ByteBuffer.allocate(length);
+                while (bytes.hasRemaining() && channel.read(bytes, offset + bytes.position()) > 0) {
+                    // keep reading until the region is filled
+                }
+                int complete = lastNewline(bytes, bytes.position()) + 1;
+                if (complete == 0) {
+                    break; // only a partial trailing line so far
+                }
+
+                List<ExportData> records = parseLines(parser, bytes.flip().limit(complete));
+                if (!records.isEmpty()) {
+                    sink.accept(records);
+                    delivered += records.size();
+                }
+                offset += complete;
+                offsets.put(name, offset);
+                saveCheckpoint();
+            }
+            if (offsets.getOrDefault(name, -1L) != offset) {
+                offsets.put(name, offset); // header consumed or file replaced
+                saveCheckpoint();
+            }
+
+            if (delivered > 0) {
+                log.info("Ingested {} appended rows from {}", delivered, name);
+            }
+            return delivered;
+        }
+    }
+
+    /**
+     * Checkpointed byte offset for a file (0 when it has not been read)
+     */
+    public synchronized long getOffset(Path file) {
+        return offsets.getOrDefault(file.getFileName().toString(), 0L);
+    }
+
+    /**
+     * Counts of appended rows rejected so far, by reason
+     */
+    public RejectedRows getRejectedRows() {
+        return rejects;
+    }
+
+    /**
+     * Stop watching and wait for the watcher thread to finish the delivery in
+     * progress, so the sink is never called after close() returns
+     */
+    @Override
+    public void close() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+        Thread thread;
+        synchronized (this) {
+            thread = watcherThread;
+            watcherThread = null;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    try {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            pollAll();
+                        } else if (event.context() instanceof Path changed
+                                && changed.toString().endsWith(".csv")) {
+                            ingest(directory.resolve(changed));
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        log.warn("Incremental ingest of {} failed: {}", event.context(), e.getMessage());
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Stopped watching {}: directory is no longer accessible", directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Incremental ingest watcher stopped");
+        }
+    }
+
+    private List<ExportData> parseLines(ExportRecordParser parser, ByteBuffer bytes) {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(bytes);
+        char[] buf = chars.array();
+        int limit = chars.arrayOffset() + chars.limit();
+
+        List<ExportData> records = new ArrayList<>();
+        int lineStart = chars.arrayOffset();
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buf[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && buf[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+
+            if (contentEnd > lineStart) {
+                int count = CsvLineTokenizer.tokenize(buf, lineStart, contentEnd, starts, ends);
+                RowStatus status = parser.tryParse(buf, starts, ends, count);
+                if (status == RowStatus.OK) {
+                    records.add(parser.lastRecord());
+                } else {
+                    rejects.reject(status, -1, new String(buf, lineStart, contentEnd - lineStart));
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return records;
+    }
+
+    private static long findHeaderEnd(FileChannel channel, long size) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(size, HEADER_SCAN_BYTES));
+        while (bytes.hasRemaining() && channel.read(bytes, bytes.position()) > 0) {
+            // keep reading until the window is filled
+        }
+        return firstNewline(bytes, bytes.position());
+    }
+
+    /**
+     * Index of the last '\n' in bytes[0, end), or -1
+     */
+    private static int lastNewline(ByteBuffer bytes, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (bytes.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the first '\n' in bytes[0, end), or -1
+     */
+    private static int firstNewline(ByteBuffer bytes, int end) {
+        for (int i = 0; i < end; i++) {
+            if (bytes.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static char[] readChars(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) (to - from));
+        while (bytes.hasRemaining() && channel.read(bytes, from + bytes.position()) > 0) {
+            // keep reading until the header is filled
+        }
+        String header = StandardCharsets.UTF_8.decode(bytes.flip()).toString();
+        return header.toCharArray();
+    }
+
+    private void loadCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            properties.load(in);
+        }
+        for (String name : properties.stringPropertyNames()) {
+            try {
+                offsets.put(name, Long.parseLong(properties.getProperty(name)));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid checkpoint offset for {}: {}", name, properties.getProperty(name));
+            }
+        }
+        log.info("Resuming incremental ingest of {} files from {}", offsets.size(), checkpointFile);
+    }
+
+    private void saveCheckpoint() throws IOException {
+        Properties properties = new Properties();
+        offsets.forEach((name, offset) -> properties.setProperty(name, Long.toString(offset)));
+
+        Path parent = checkpointFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, checkpointFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Byte offsets of ingested rows per raw export file");
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package tn.isg.economics.data.loader;
+
+/**
+ * Throughput summary for one ingest run
+ */
+public record IngestReport(
+    String source,
+    long rows,
+    long skippedRows,
+    long bytes,
+    long elapsedNanos
+) {
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    public double elapsedSeconds() {
+        return elapsedNanos / 1_000_000_000.0;
+    }
+
+    public double rowsPerSecond() {
+        return elapsedNanos > 0 ? rows / elapsedSeconds() : 0.0;
+    }
+
+    public double megabytesPerSecond() {
+        return elapsedNanos > 0 ? (bytes / BYTES_PER_MB) / elapsedSeconds() : 0.0;
+    }
+
+    public String toSummary() {
+        return String.format("%s: %,d rows (%,d skipped), %.2f MB in %.3f s -> %,.0f rows/s, %.2f MB/s",
+                source, rows, skippedRows, bytes / BYTES_PER_MB, elapsedSeconds(),
+                rowsPerSecond(), megabytesPerSecond());
+    }
+}
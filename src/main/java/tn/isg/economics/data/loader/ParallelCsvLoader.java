@@ -0,0 +1,194 @@
+package tn.isg.economics.data.loader;
+
+import tn.isg.economics.model.ExportData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parallel CSV ingest: memory-maps the file, splits it into chunks at newline
+ * boundaries and parses each chunk on a fork-join pool. Results are merged in
+ * file order, so the output matches {@link DataLoader#loadExportDataFromCSV(String)}.
+ * Quoted fields must not contain line breaks.
+ */
+public class ParallelCsvLoader {
+    private static final Logger log = LoggerFactory.getLogger(ParallelCsvLoader.class);
+
+    public static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final int BOUNDARY_SCAN_WINDOW = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+    private volatile IngestReport lastReport;
+
+    public ParallelCsvLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelCsvLoader(ForkJoinPool pool, long chunkSize) {
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk size must be in (0, 2GB): " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Load all export records from the file, preserving file order
+     */
+    public List<ExportData> load(Path path) throws IOException {
+        return load(path, new RejectedRows());
+    }
+
+    /**
+     * Load all export records, reporting rejected rows to rejects
+     */
+    public List<ExportData> load(Path path, RejectedRows rejects) throws IOException {
+        long startNanos = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                lastReport = new IngestReport(path.toString(), 0, 0, 0, System.nanoTime() - startNanos);
+                return new ArrayList<>();
+            }
+
+            long headerEnd = findLineEnd(channel, 0, size);
+            char[] header = readHeader(channel, headerEnd).toCharArray();
+            ExportRecordParser headerParser = ExportRecordParser.forHeaderLine(header, 0, header.length);
+            List<long[]> chunks = splitChunks(channel, Math.min(headerEnd + 1, size), size);
+
+            List<ForkJoinTask<ChunkResult>> tasks = new ArrayList<>(chunks.size());
+            for (long[] chunk : chunks) {
+                tasks.add(pool.submit(() -> parseChunk(channel, chunk[0], chunk[1], headerParser.copy())));
+            }
+
+            List<ExportData> merged = new ArrayList<>();
+            long skipped = 0;
+            // Chunks are joined in file order, so a running row count gives each chunk's first
+            // record number, counted like CSVRecord.getRecordNumber in the sequential loader
+            long firstRow = 1;
+            for (ForkJoinTask<ChunkResult> task : tasks) {
+                ChunkResult result = task.join();
+                merged.addAll(result.records());
+                skipped += result.rejected().size();
+                for (Rejected row : result.rejected()) {
+                    rejects.reject(row.status(), firstRow + row.rowIndex(), row.text());
+                }
+                firstRow += result.rows();
+            }
+
+            lastReport = new IngestReport(path.toString(), merged.size(), skipped, size,
+                    System.nanoTime() - startNanos);
+            log.info("Parallel ingest of {} chunks on {} threads - {}",
+                    chunks.size(), pool.getParallelism(), lastReport.toSummary());
+            return merged;
+        }
+    }
+
+    /**
+     * Throughput report of the most recent {@link #load(Path)} call, or null
+     */
+    public IngestReport getLastReport() {
+        return lastReport;
+    }
+
+    private String readHeader(FileChannel channel, long headerEnd) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+        String header = StandardCharsets.UTF_8.decode(buffer).toString();
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        return header.strip();
+    }
+
+    /**
+     * Split [from, size) into ranges of roughly chunkSize bytes ending on a newline
+     */
+    private List<long[]> splitChunks(FileChannel channel, long from, long size) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long target = start + chunkSize;
+            long end = target >= size ? size : Math.min(findLineEnd(channel, target, size) + 1, size);
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Position of the first '\n' at or after from, or size if there is none
+     */
+    private long findLineEnd(FileChannel channel, long from, long size) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            int window = (int) Math.min(BOUNDARY_SCAN_WINDOW, size - pos);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, window);
+            for (int i = 0; i < window; i++) {
+                if (buffer.get(i) == '\n') {
+                    return pos + i;
+                }
+            }
+            pos += window;
+        }
+        return size;
+    }
+
+    /**
+     * Parse one chunk; rejected rows keep their index among the chunk's non-blank
+     * lines until the caller knows where the chunk starts
+     */
+    private ChunkResult parseChunk(FileChannel channel, long start, long end, ExportRecordParser parser)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        CharBuffer chars = StandardCharsets.UTF_8.decode(buffer);
+        char[] buf = chars.array();
+        int limit = chars.arrayOffset() + chars.limit();
+
+        List<ExportData> records = new ArrayList<>();
+        List<Rejected> rejected = new ArrayList<>();
+        int rowIndex = 0;
+        int[] starts = new int[256];
+        int[] ends = new int[256];
+
+        int lineStart = chars.arrayOffset();
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buf[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && buf[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+
+            if (contentEnd > lineStart) {
+                int count = CsvLineTokenizer.tokenize(buf, lineStart, contentEnd, starts, ends);
+                RowStatus status = parser.tryParse(buf, starts, ends, count);
+                if (status == RowStatus.OK) {
+                    records.add(parser.lastRecord());
+                } else {
+                    rejected.add(new Rejected(status, rowIndex, new String(buf, lineStart, contentEnd - lineStart)));
+                }
+                rowIndex++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return new ChunkResult(records, rejected, rowIndex);
+    }
+
+    private record ChunkResult(List<ExportData> records, List<Rejected> rejected, int rows) {
+    }
+
+    private record Rejected(RowStatus status, int rowIndex, String text) {
+    }
+}
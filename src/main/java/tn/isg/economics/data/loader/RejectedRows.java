@@ -0,0 +1,132 @@
+package tn.isg.economics.data.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects rows rejected during ingest: a counter per RowStatus and, optionally,
+ * a side file with one "line,reason,row" entry per rejected row, the raw row
+ * quoted as a single CSV field. The side file is only created once the first
+ * row is rejected. Safe to share between threads.
+ */
+public class RejectedRows implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(RejectedRows.class);
+    private static final RowStatus[] STATUSES = RowStatus.values();
+
+    private final LongAdder[] counters = new LongAdder[STATUSES.length];
+    private final Path sideFile;
+    private BufferedWriter writer;
+    private boolean opened;
+
+    /**
+     * Count rejects without writing them anywhere
+     */
+    public RejectedRows() {
+        this(null);
+    }
+
+    /**
+     * @param sideFile file receiving the rejected rows (replaced if it exists), or null
+     */
+    public RejectedRows(Path sideFile) {
+        this.sideFile = sideFile;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a rejected row
+     * @param lineNumber line of the row in its source, or -1 if unknown
+     * @param row the raw row text
+     */
+    public void reject(RowStatus status, long lineNumber, CharSequence row) {
+        counters[status.ordinal()].increment();
+        if (sideFile != null) {
+            write(status, lineNumber, row);
+        }
+    }
+
+    public long getCount(RowStatus status) {
+        return counters[status.ordinal()].sum();
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (RowStatus status : STATUSES) {
+            if (status.isRejected()) {
+                total += counters[status.ordinal()].sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Non-zero reject counts by reason
+     */
+    public Map<RowStatus, Long> getCounts() {
+        Map<RowStatus, Long> counts = new EnumMap<>(RowStatus.class);
+        for (RowStatus status : STATUSES) {
+            long count = counters[status.ordinal()].sum();
+            if (count > 0) {
+                counts.put(status, count);
+            }
+        }
+        return counts;
+    }
+
+    public Path getSideFile() {
+        return sideFile;
+    }
+
+    private synchronized void write(RowStatus status, long lineNumber, CharSequence row) {
+        try {
+            if (writer == null && opened) {
+                writer = Files.newBufferedWriter(sideFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            } else if (writer == null) {
+                Files.createDirectories(sideFile.toAbsolutePath().getParent());
+                writer = Files.newBufferedWriter(sideFile, StandardCharsets.UTF_8);
+                writer.write("line,reason,row");
+                writer.newLine();
+                opened = true;
+            }
+            if (lineNumber >= 0) {
+                writer.write(Long.toString(lineNumber));
+            }
+            writer.write(',');
+            writer.write(status.name());
+            writer.write(",\"");
+            for (int i = 0; i < row.length(); i++) {
+                char c = row.charAt(i);
+                if (c == '"') {
+                    writer.write('"');
+                }
+                writer.write(c);
+            }
+            writer.write('"');
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write rejected row to " + sideFile, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            log.info("Wrote {} rejected rows to {}", getTotal(), sideFile);
+        }
+    }
+}
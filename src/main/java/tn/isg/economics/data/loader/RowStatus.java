@@ -0,0 +1,40 @@
+package tn.isg.economics.data.loader;
+
+/**
+ * Outcome of validating one CSV row: OK, or the reason it was rejected.
+ * Rejected rows are reported by value instead of by exception, so bad rows
+ * cost no more to process than good ones.
+ */
+public enum RowStatus {
+    OK("Accepted", -1),
+    MISSING_FIELDS("Missing fields", -1),
+    INVALID_DATE("Invalid date", ExportRecordParser.DATE),
+    UNKNOWN_PRODUCT("Unknown product type", ExportRecordParser.PRODUCT_TYPE),
+    INVALID_PRICE("Invalid price", ExportRecordParser.PRICE_PER_TON),
+    NEGATIVE_PRICE("Price cannot be negative", ExportRecordParser.PRICE_PER_TON),
+    INVALID_VOLUME("Invalid volume", ExportRecordParser.VOLUME),
+    UNKNOWN_INDICATOR("Unknown market indicator", ExportRecordParser.MARKET_INDICATOR);
+
+    private final String description;
+    private final int column;
+
+    RowStatus(String description, int column) {
+        this.description = description;
+        this.column = column;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * The offending ExportRecordParser column, or -1 when the reason concerns the whole row
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    public boolean isRejected() {
+        return this != OK;
+    }
+}
@@ -0,0 +1,338 @@
+package tn.isg.economics.data.snapshot;
+
+import tn.isg.economics.model.CountryDictionary;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ExportDataColumns;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Compact, versioned binary snapshots of ingested datasets.
+ *
+ * Layout (big-endian): a 16-byte header (magic, format version, kind, row count,
+ * dictionary size), a string dictionary, padding to an 8-byte boundary, then one
+ * contiguous block per column (doubles, then ints, then bytes). Snapshots are
+ * memory-mapped on load and the column blocks are bulk-copied into primitive
+ * arrays, so reload cost is bounded by page-in time rather than parsing.
+ */
+public class SnapshotStore {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x54414758; // "TAGX"
+    public static final short FORMAT_VERSION = 1;
+    private static final byte KIND_EXPORTS = 1;
+    private static final byte KIND_PREDICTIONS = 2;
+    private static final int HEADER_BYTES = 16;
+
+    private static final ProductType[] PRODUCTS = ProductType.values();
+    private static final PredictionStatus[] STATUSES = PredictionStatus.values();
+
+    /**
+     * Write export records as a snapshot file (atomically replaces any existing file)
+     */
+    public void writeExports(List<ExportData> exports, Path target) throws IOException {
+        writeExports(ExportDataColumns.from(exports), target);
+    }
+
+    public void writeExports(ExportDataColumns columns, Path target) throws IOException {
+        int rows = columns.size();
+        // Country ids are process-local; store the countries in use under compact file ids
+        int[] fileIds = new int[columns.countryCount()];
+        Arrays.fill(fileIds, -1);
+        List<String> dictionary = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            int id = columns.countryId(i);
+            if (fileIds[id] < 0) {
+                fileIds[id] = dictionary.size();
+                dictionary.add(columns.countryName(id));
+            }
+        }
+        byte[][] encoded = encodeDictionary(dictionary.toArray(new String[0]));
+        long dataStart = align8(HEADER_BYTES + dictionaryBytes(encoded));
+        long fileSize = dataStart + (long) rows * (8 + 8 + 4 + 4 + 1 + 1);
+
+        writeAtomically(target, fileSize, buffer -> {
+            writeHeader(buffer, KIND_EXPORTS, rows, encoded);
+            buffer.position((int) dataStart);
+            for (int i = 0; i < rows; i++) buffer.putDouble(columns.pricePerTon(i));
+            for (int i = 0; i < rows; i++) buffer.putDouble(columns.volume(i));
+            for (int i = 0; i < rows; i++) buffer.putInt(columns.epochDay(i));
+            for (int i = 0; i < rows; i++) buffer.putInt(fileIds[columns.countryId(i)]);
+            for (int i = 0; i < rows; i++) buffer.put((byte) columns.productType(i).ordinal());
+            for (int i = 0; i < rows; i++) buffer.put((byte) columns.indicator(i).ordinal());
+        });
+        log.info("Wrote export snapshot with {} rows to {}", rows, target);
+    }
+
+    /**
+     * Memory-map an export snapshot back into a columnar store
+     */
+    public ExportDataColumns readExports(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int rows = readHeader(buffer, KIND_EXPORTS, source);
+            String[] dictionary = readDictionary(buffer);
+            buffer.position((int) align8(buffer.position()));
+            checkRemaining(buffer, (long) rows * (8 + 8 + 4 + 4 + 1 + 1), source);
+
+            double[] prices = new double[rows];
+            double[] volumes = new double[rows];
+            int[] epochDays = new int[rows];
+            int[] countries = new int[rows];
+            byte[] products = new byte[rows];
+            byte[] indicators = new byte[rows];
+
+            readDoubles(buffer, prices);
+            readDoubles(buffer, volumes);
+            readInts(buffer, epochDays);
+            readInts(buffer, countries);
+            buffer.get(products);
+            buffer.get(indicators);
+
+            CountryDictionary countryDictionary = CountryDictionary.global();
+            int[] globalIds = new int[dictionary.length];
+            for (int id = 0; id < dictionary.length; id++) {
+                globalIds[id] = countryDictionary.idOf(dictionary[id]);
+            }
+            for (int i = 0; i < rows; i++) {
+                countries[i] = globalIds[countries[i]];
+            }
+
+            log.info("Mapped export snapshot with {} rows from {}", rows, source);
+            return ExportDataColumns.wrap(rows, epochDays, products, prices, volumes, countries,
+                    indicators, countryDictionary);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt export snapshot: " + source, e);
+        }
+    }
+
+    /**
+     * Write prediction history as a snapshot file
+     */
+    public void writePredictions(List<PricePrediction> predictions, Path target) throws IOException {
+        int rows = predictions.size();
+        Map<String, Integer> modelIds = new HashMap<>();
+        List<String> models = new ArrayList<>();
+        int[] modelColumn = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            String model = predictions.get(i).modelName();
+            modelColumn[i] = modelIds.computeIfAbsent(model, m -> {
+                models.add(m);
+                return models.size() - 1;
+            });
+        }
+        byte[][] encoded = encodeDictionary(models.toArray(new String[0]));
+        long dataStart = align8(HEADER_BYTES + dictionaryBytes(encoded));
+        long fileSize = dataStart + (long) rows * (8 + 8 + 4 + 4 + 1 + 1);
+
+        writeAtomically(target, fileSize, buffer -> {
+            writeHeader(buffer, KIND_PREDICTIONS, rows, encoded);
+            buffer.position((int) dataStart);
+            for (PricePrediction p : predictions) buffer.putDouble(p.predictedPrice());
+            for (PricePrediction p : predictions) buffer.putDouble(p.confidence());
+            for (PricePrediction p : predictions) buffer.putInt(Math.toIntExact(p.predictionDate().toEpochDay()));
+            for (int i = 0; i < rows; i++) buffer.putInt(modelColumn[i]);
+            for (PricePrediction p : predictions) buffer.put((byte) p.productType().ordinal());
+            for (PricePrediction p : predictions) buffer.put((byte) p.status().ordinal());
+        });
+        log.info("Wrote prediction snapshot with {} rows to {}", rows, target);
+    }
+
+    /**
+     * Memory-map a prediction snapshot back into PricePrediction records
+     */
+    public List<PricePrediction> readPredictions(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int rows = readHeader(buffer, KIND_PREDICTIONS, source);
+            String[] models = readDictionary(buffer);
+            buffer.position((int) align8(buffer.position()));
+            checkRemaining(buffer, (long) rows * (8 + 8 + 4 + 4 + 1 + 1), source);
+
+            double[] prices = new double[rows];
+            double[] confidences = new double[rows];
+            int[] epochDays = new int[rows];
+            int[] modelIds = new int[rows];
+            byte[] products = new byte[rows];
+            byte[] statuses = new byte[rows];
+
+            readDoubles(buffer, prices);
+            readDoubles(buffer, confidences);
+            readInts(buffer, epochDays);
+            readInts(buffer, modelIds);
+            buffer.get(products);
+            buffer.get(statuses);
+
+            List<PricePrediction> predictions = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                predictions.add(new PricePrediction(
+                        LocalDate.ofEpochDay(epochDays[i]),
+                        PRODUCTS[products[i]],
+                        prices[i],
+                        confidences[i],
+                        models[modelIds[i]],
+                        STATUSES[statuses[i]]
+                ));
+            }
+            log.info("Mapped prediction snapshot with {} rows from {}", rows, source);
+            return predictions;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt prediction snapshot: " + source, e);
+        }
+    }
+
+    /**
+     * Load exports from a snapshot if it is present and not older than the source;
+     * otherwise run the ingest and write a fresh snapshot for the next start.
+     */
+    public List<ExportData> loadOrIngest(Path snapshot, Path source, Supplier<List<ExportData>> ingest) {
+        try {
+            if (isFresh(snapshot, source)) {
+                return readExports(snapshot).asList();
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable snapshot {}: {}", snapshot, e.getMessage());
+        }
+
+        List<ExportData> exports = ingest.get();
+        if (!exports.isEmpty()) {
+            try {
+                writeExports(exports, snapshot);
+            } catch (IOException e) {
+                log.warn("Could not write snapshot {}: {}", snapshot, e.getMessage());
+            }
+        }
+        return exports;
+    }
+
+    private boolean isFresh(Path snapshot, Path source) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return false;
+        }
+        if (source == null || !Files.exists(source)) {
+            return true;
+        }
+        return Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(source)) >= 0;
+    }
+
+    // ---- Format helpers ----
+
+    private interface BufferWriter {
+        void write(ByteBuffer buffer) throws IOException;
+    }
+
+    private void writeAtomically(Path target, long fileSize, BufferWriter writer) throws IOException {
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot larger than 2GB is not supported: " + fileSize + " bytes");
+        }
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+                writer.write(buffer);
+                buffer.force();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeHeader(ByteBuffer buffer, byte kind, int rows, byte[][] dictionary) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(FORMAT_VERSION);
+        buffer.put(kind);
+        buffer.put((byte) 0);
+        buffer.putInt(rows);
+        buffer.putInt(dictionary.length);
+        for (byte[] entry : dictionary) {
+            buffer.putInt(entry.length);
+            buffer.put(entry);
+        }
+    }
+
+    private int readHeader(ByteBuffer buffer, byte expectedKind, Path source) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file: " + source);
+        }
+        short version = buffer.getShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + source);
+        }
+        byte kind = buffer.get();
+        if (kind != expectedKind) {
+            throw new IOException("Unexpected snapshot kind " + kind + " in " + source);
+        }
+        buffer.get();
+        int rows = buffer.getInt();
+        if (rows < 0) {
+            throw new IOException("Negative row count in " + source);
+        }
+        return rows;
+    }
+
+    private String[] readDictionary(ByteBuffer buffer) {
+        String[] dictionary = new String[buffer.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return dictionary;
+    }
+
+    private static byte[][] encodeDictionary(String[] dictionary) {
+        byte[][] encoded = new byte[dictionary.length][];
+        for (int i = 0; i < dictionary.length; i++) {
+            encoded[i] = String.valueOf(dictionary[i]).getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static long dictionaryBytes(byte[][] encoded) {
+        return Arrays.stream(encoded).mapToLong(entry -> 4L + entry.length).sum();
+    }
+
+    private static long align8(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void checkRemaining(ByteBuffer buffer, long needed, Path source) throws IOException {
+        if (buffer.remaining() < needed) {
+            throw new IOException("Truncated snapshot: " + source);
+        }
+    }
+
+    private static void readDoubles(ByteBuffer buffer, double[] target) {
+        buffer.asDoubleBuffer().get(target);
+        buffer.position(buffer.position() + target.length * Double.BYTES);
+    }
+
+    private static void readInts(ByteBuffer buffer, int[] target) {
+        buffer.asIntBuffer().get(target);
+        buffer.position(buffer.position() + target.length * Integer.BYTES);
+    }
+}
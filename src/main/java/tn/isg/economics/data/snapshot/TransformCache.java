@@ -0,0 +1,148 @@
+package tn.isg.economics.data.snapshot;
+
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.util.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed cache of transformed export data.
+ *
+ * An entry is named after a SHA-256 key over the source file (its content, or
+ * its size and modification time when data.cache.key.mode is "metadata"), the
+ * caller's settings string (transformer options, seed, ...) and the snapshot
+ * format version. A changed input produces a different key, so stale entries
+ * are never read. Entry names also carry a short hash of the source path, and
+ * writing a new entry deletes the older entries of that same source only.
+ * Entries are stored as SnapshotStore files and memory-mapped on a hit.
+ */
+public class TransformCache {
+    private static final Logger log = LoggerFactory.getLogger(TransformCache.class);
+    private static final int HASH_BUFFER_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final boolean hashContent;
+    private final SnapshotStore store = new SnapshotStore();
+
+    public TransformCache() {
+        this(Path.of(ConfigLoader.getProcessedDataPath()), ConfigLoader.isTransformCacheContentKeyed());
+    }
+
+    /**
+     * @param hashContent key on the source bytes (true) or on its size and mtime (false)
+     */
+    public TransformCache(Path directory, boolean hashContent) {
+        this.directory = directory;
+        this.hashContent = hashContent;
+    }
+
+    /**
+     * Cached result for (source, settings), computing and storing it on a miss.
+     * A missing source file is never cached, since the result is then a fallback.
+     * @param name entry name prefix, e.g. "fao_exports"
+     * @param source input file the result derives from, or null if there is none
+     */
+    public List<ExportData> getOrCompute(String name, Path source, String settings,
+                                         Supplier<List<ExportData>> compute) {
+        if (source != null && !Files.isRegularFile(source)) {
+            return compute.get();
+        }
+
+        String prefix = name + "-" + sourceId(source) + "-";
+        Path entry;
+        try {
+            entry = directory.resolve(prefix + key(source, settings) + ".snap");
+        } catch (IOException e) {
+            log.warn("Transform cache unavailable for {}: {}", name, e.getMessage());
+            return compute.get();
+        }
+
+        if (Files.exists(entry)) {
+            try {
+                List<ExportData> cached = store.readExports(entry).asList();
+                log.info("Transform cache hit for {}: {} records from {}", name, cached.size(), entry);
+                return cached;
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable transform cache entry {}: {}", entry, e.getMessage());
+            }
+        }
+
+        List<ExportData> result = compute.get();
+        if (!result.isEmpty()) {
+            try {
+                store.writeExports(result, entry);
+                deleteStaleEntries(prefix, entry);
+            } catch (IOException e) {
+                log.warn("Could not write transform cache entry {}: {}", entry, e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hex key over the snapshot format, the settings and the source identity
+     */
+    public String key(Path source, String settings) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(("format=" + SnapshotStore.FORMAT_VERSION + "\n").getBytes(StandardCharsets.UTF_8));
+        digest.update(("settings=" + settings + "\n").getBytes(StandardCharsets.UTF_8));
+        if (source != null) {
+            if (hashContent) {
+                byte[] buffer = new byte[HASH_BUFFER_BYTES];
+                try (InputStream in = Files.newInputStream(source)) {
+                    for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                        digest.update(buffer, 0, n);
+                    }
+                }
+            } else {
+                digest.update(("source=" + source.toAbsolutePath().normalize()
+                        + ";size=" + Files.size(source)
+                        + ";mtime=" + Files.getLastModifiedTime(source).toMillis())
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    /**
+     * Short hash of the source path, naming the entries that derive from it
+     */
+    private static String sourceId(Path source) {
+        String path = source == null ? "" : source.toAbsolutePath().normalize().toString();
+        byte[] hash = sha256().digest(path.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash, 0, 4);
+    }
+
+    /**
+     * Delete the other entries of the same name and source
+     */
+    private void deleteStaleEntries(String prefix, Path current) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, prefix + "*.snap")) {
+            for (Path entry : entries) {
+                if (!entry.equals(current) && Files.deleteIfExists(entry)) {
+                    log.info("Removed stale transform cache entry {}", entry);
+                }
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
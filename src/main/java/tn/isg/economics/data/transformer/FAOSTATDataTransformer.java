@@ -1,18 +1,24 @@
 package tn.isg.economics.data.transformer;
 
+import tn.isg.economics.data.loader.CsvSources;
+import tn.isg.economics.data.snapshot.TransformCache;
+import tn.isg.economics.model.CountryDictionary;
 import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ExportDataColumns;
 import tn.isg.economics.model.ProductType;
 import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.util.ConfigLoader;
+import tn.isg.economics.util.ExchangeRateTable;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Transforms FAOSTAT dataset to our format with Tunisian Dinar conversion
@@ -27,112 +33,307 @@ public class FAOSTATDataTransformer {
             "01329", ProductType.CITRUS_FRUITS
     );
 
-    // Common Tunisian export destinations
-    private static final String[] DESTINATION_COUNTRIES = {
+    // Common Tunisian export destinations, as shared dictionary instances
+    private static final String[] DESTINATION_COUNTRIES = Arrays.stream(new String[]{
             "France", "Germany", "Italy", "Spain", "Libya",
             "United Kingdom", "Netherlands", "Belgium", "Algeria", "Morocco"
-    };
+    }).map(CountryDictionary.global()::canonical).toArray(String[]::new);
 
-    // USD to Tunisian Dinar exchange rate (approximate)
-    private static final double USD_TO_TND = 3.1;
+    // FAOSTAT Element names pivoted into quantity and value
+    private static final String EXPORT_QUANTITY = "Export quantity";
+    private static final String EXPORT_VALUE = "Export value";
 
-    private final Random random = new Random();
+    // Bump when the transformation logic changes, so cached results are recomputed
+    private static final int TRANSFORM_VERSION = 4;
+
+    private final long seed;
+    private final Random random;
+    private final Set<String> areaCodes;
+    private final Set<String> itemCodes;
+    // Historical USD to Tunisian Dinar rates
+    private final ExchangeRateTable usdRates = ExchangeRateTable.usdToTnd();
+
+    /**
+     * Transformer for the areas and items set in faostat.area.codes and faostat.item.codes,
+     * seeded from faostat.expansion.seed
+     */
+    public FAOSTATDataTransformer() {
+        this(ConfigLoader.getFaostatAreaCodes(), ConfigLoader.getFaostatItemCodes(),
+                ConfigLoader.getFaostatExpansionSeed());
+    }
+
+    /**
+     * @param areaCodes M49 codes of the exporting areas kept by the bulk mode (e.g. "788" for Tunisia)
+     * @param itemCodes CPC item codes kept by the bulk mode
+     */
+    public FAOSTATDataTransformer(Set<String> areaCodes, Set<String> itemCodes) {
+        this(areaCodes, itemCodes, ConfigLoader.getFaostatExpansionSeed());
+    }
+
+    /**
+     * @param seed seed of the monthly variation; equal seeds give identical output
+     */
+    public FAOSTATDataTransformer(Set<String> areaCodes, Set<String> itemCodes, long seed) {
+        this.areaCodes = new LinkedHashSet<>(areaCodes);
+        this.itemCodes = new LinkedHashSet<>(itemCodes);
+        // An item without a product type cannot be emitted, so do not read it at all
+        if (this.itemCodes.retainAll(PRODUCT_MAPPING.keySet())) {
+            Set<String> unmapped = new TreeSet<>(itemCodes);
+            unmapped.removeAll(PRODUCT_MAPPING.keySet());
+            System.err.println("Ignoring FAOSTAT item codes without a product type: " + unmapped);
+        }
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
 
     /**
-     * Transform FAOSTAT CSV to ExportData objects with TND prices
+     * Transform FAOSTAT CSV to ExportData objects with TND prices.
+     * Accepts plain or gzip files and "archive.zip!entry.csv" locations.
      */
     public List<ExportData> transformFAOSTATData(String filePath) {
         List<ExportData> exportDataList = new ArrayList<>();
 
-        if (!Files.exists(Path.of(filePath))) {
+        if (!CsvSources.exists(filePath)) {
             System.out.println("FAOSTAT file not found, using synthetic data: " + filePath);
             return generateSyntheticFAOData();
         }
 
-        try (Reader reader = new FileReader(filePath);
+        try {
+            emitPivot(readExtract(filePath), exportDataList);
+            System.out.println("Transformed " + exportDataList.size() + " FAOSTAT records to TND");
+
+        } catch (Exception e) {
+            System.err.println("Error processing FAOSTAT data: " + e.getMessage());
+            System.out.println("Falling back to synthetic data...");
+            exportDataList = generateSyntheticFAOData();
+        }
+
+        return exportDataList;
+    }
+
+    /**
+     * Transform FAOSTAT CSV into a columnar store, appending the monthly rows
+     * straight into the columns without creating ExportData records
+     */
+    public ExportDataColumns transformFAOSTATDataToColumns(String filePath) {
+        if (!CsvSources.exists(filePath)) {
+            System.out.println("FAOSTAT file not found, using synthetic data: " + filePath);
+            return ExportDataColumns.from(generateSyntheticFAOData());
+        }
+
+        try {
+            FaostatPivot pivot = readExtract(filePath);
+            ExportDataColumns.Builder columns = ExportDataColumns.builder(pivot.size() * 12);
+            emitPivot(pivot, columns);
+            System.out.println("Transformed " + columns.size() + " FAOSTAT records to TND columns");
+            return columns.build();
+
+        } catch (Exception e) {
+            System.err.println("Error processing FAOSTAT data: " + e.getMessage());
+            System.out.println("Falling back to synthetic data...");
+            return ExportDataColumns.from(generateSyntheticFAOData());
+        }
+    }
+
+    /**
+     * Single pass over a FAOSTAT extract: pivot quantity and value rows by (item code, year)
+     */
+    private FaostatPivot readExtract(String filePath) throws IOException {
+        try (Reader reader = CsvSources.openReader(filePath);
              CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT
                      .withFirstRecordAsHeader()
                      .withIgnoreHeaderCase()
                      .withTrim())) {
 
             System.out.println("Processing FAOSTAT data from: " + filePath);
-            Map<String, Map<Integer, Double>> dataCache = new HashMap<>();
-
-            // Parse CSV data
+            Map<String, Integer> header = csvParser.getHeaderMap();
+            int itemColumn = headerIndex(header, "Item Code (CPC)");
+            int elementColumn = headerIndex(header, "Element");
+            int yearColumn = headerIndex(header, "Year");
+            int valueColumn = headerIndex(header, "Value");
+            int minFields = Math.max(Math.max(itemColumn, elementColumn), Math.max(yearColumn, valueColumn)) + 1;
+
+            FaostatPivot pivot = new FaostatPivot();
             for (CSVRecord record : csvParser) {
-                try {
-                    String itemCode = record.get("Item Code (CPC)");
-                    String element = record.get("Element");
-                    int year = Integer.parseInt(record.get("Year"));
-                    double value = parseDouble(record.get("Value"));
-
-                    if (value == 0) continue;
-
-                    String key = itemCode + "_" + year;
-                    dataCache.putIfAbsent(key, new HashMap<>());
-
-                    if ("Export quantity".equals(element)) {
-                        dataCache.get(key).put(5910, value);
-                    } else if ("Export value".equals(element)) {
-                        dataCache.get(key).put(5922, value);
-                    }
-                } catch (Exception e) {
-                    // Skip invalid records
+                if (record.size() < minFields) continue;
+
+                String element = record.get(elementColumn);
+                boolean isQuantity = EXPORT_QUANTITY.equals(element);
+                if (!isQuantity && !EXPORT_VALUE.equals(element)) continue;
+
+                int year = parseYear(record.get(yearColumn));
+                double value = parseDouble(record.get(valueColumn));
+                if (year < 0 || value == 0) continue;
+
+                int itemId = pivot.itemId(record.get(itemColumn));
+                if (isQuantity) {
+                    pivot.putQuantity(itemId, year, value);
+                } else {
+                    pivot.putValue(itemId, year, value);
                 }
             }
 
-            System.out.println("Found " + dataCache.size() + " product-year combinations");
+            System.out.println("Found " + pivot.size() + " product-year combinations");
+            return pivot;
+        }
+    }
+
+    /**
+     * Transform a FAOSTAT bulk download (all areas and items, plain, gzip or zipped)
+     * in one streaming pass, keeping only export rows of the configured areas and items.
+     * Unwanted rows are rejected on their raw bytes without being parsed.
+     */
+    public List<ExportData> transformFAOSTATBulk(String location) {
+        List<ExportData> exportDataList = new ArrayList<>();
+
+        if (!CsvSources.exists(location)) {
+            System.out.println("FAOSTAT bulk file not found, using synthetic data: " + location);
+            return generateSyntheticFAOData();
+        }
+
+        try (InputStream in = CsvSources.openStream(location)) {
+            System.out.println("Streaming FAOSTAT bulk data from: " + location
+                    + " (areas " + areaCodes + ", items " + itemCodes + ")");
+            long start = System.nanoTime();
+            FaostatPivot pivot = new FaostatPivot();
+            FaostatBulkReader bulkReader = new FaostatBulkReader(areaCodes, itemCodes);
+            bulkReader.read(in, pivot);
+
+            System.out.printf("Scanned %,d rows, kept %,d, found %d series-years in %.2f s%n",
+                    bulkReader.getRowsScanned(), bulkReader.getRowsMatched(), pivot.size(),
+                    (System.nanoTime() - start) / 1e9);
+            emitPivot(pivot, exportDataList);
+            System.out.println("Transformed " + exportDataList.size() + " FAOSTAT records to TND");
+
+        } catch (Exception e) {
+            System.err.println("Error processing FAOSTAT bulk data: " + e.getMessage());
+            System.out.println("Falling back to synthetic data...");
+            exportDataList = generateSyntheticFAOData();
+        }
 
-            // Create ExportData objects
-            for (Map.Entry<String, Map<Integer, Double>> entry : dataCache.entrySet()) {
-                String[] parts = entry.getKey().split("_");
-                String itemCode = parts[0];
-                int year = Integer.parseInt(parts[1]);
+        return exportDataList;
+    }
 
-                Map<Integer, Double> values = entry.getValue();
+    /**
+     * transformFAOSTATData through the transform cache: a source whose content and
+     * transformer settings match an earlier run is read back from its binary entry
+     */
+    public List<ExportData> transformFAOSTATDataCached(String filePath) {
+        return new TransformCache().getOrCompute("fao_exports", CsvSources.sourceFile(filePath),
+                cacheSettings("extract", filePath), () -> transformFAOSTATData(filePath));
+    }
 
-                if (values.containsKey(5910) && values.containsKey(5922)) {
-                    double quantity = values.get(5910);
-                    double valueUsd = values.get(5922); // in 1000 USD
+    /**
+     * transformFAOSTATBulk through the transform cache
+     */
+    public List<ExportData> transformFAOSTATBulkCached(String location) {
+        return new TransformCache().getOrCompute("fao_bulk_exports", CsvSources.sourceFile(location),
+                cacheSettings("bulk", location), () -> transformFAOSTATBulk(location));
+    }
 
-                    if (quantity > 0) {
-                        // Calculate USD price per ton
-                        double pricePerTonUsd = (valueUsd * 1000) / quantity;
+    /**
+     * Everything besides the source bytes that the transformed output depends on
+     */
+    String cacheSettings(String mode, String location) {
+        return "faostat;version=" + TRANSFORM_VERSION + ";mode=" + mode
+                + ";entry=" + CsvSources.baseName(location)
+                + ";areas=" + areaCodes + ";items=" + itemCodes + ";seed=" + seed
+                + ";usdToTnd=" + usdRates.fingerprint() + ";products=" + new TreeMap<>(PRODUCT_MAPPING);
+    }
 
-                        // Convert to Tunisian Dinar
-                        double pricePerTonTnd = pricePerTonUsd * USD_TO_TND;
+    /**
+     * Pivot rows that can be emitted, with their prices per ton in TND
+     */
+    private record EmitRows(int[] rows, int count, double[] pricesPerTon) {
+    }
 
-                        ProductType productType = PRODUCT_MAPPING.getOrDefault(itemCode, ProductType.OLIVE_OIL);
+    /**
+     * Receives the monthly records of one product-year; slot is the record's
+     * position in the output
+     */
+    @FunctionalInterface
+    private interface MonthlySink {
+        void accept(int slot, LocalDate date, ProductType productType, double pricePerTon, double volume,
+                    String destinationCountry, MarketIndicator indicator);
+    }
 
-                        // Generate monthly variations
-                        for (int month = 1; month <= 12; month++) {
-                            double monthlyPrice = pricePerTonTnd * (0.9 + random.nextDouble() * 0.2);
-                            double monthlyVolume = quantity / 12 * (0.8 + random.nextDouble() * 0.4);
+    /**
+     * Turn each complete pivot row into monthly ExportData records.
+     * Product-years are expanded in parallel; each one draws from its own
+     * SplittableRandom derived from the seed and the row's (series, year) key,
+     * so the output is identical for every run and thread count.
+     */
+    private void emitPivot(FaostatPivot pivot, List<ExportData> out) {
+        EmitRows emit = selectRows(pivot);
+        ExportData[] expanded = new ExportData[emit.count() * 12];
+        MonthlySink records = (slot, date, productType, price, volume, country, indicator) ->
+                expanded[slot] = new ExportData(date, productType, price, volume, country, indicator);
+        IntStream.range(0, emit.count()).parallel().forEach(i -> expandRow(pivot, emit, i, records));
+        out.addAll(Arrays.asList(expanded));
+    }
 
-                            ExportData exportData = new ExportData(
-                                    LocalDate.of(year, month, 15), // Middle of month
-                                    productType,
-                                    Math.round(monthlyPrice * 100.0) / 100.0, // Round to 2 decimals
-                                    Math.round(monthlyVolume * 100.0) / 100.0,
-                                    DESTINATION_COUNTRIES[random.nextInt(DESTINATION_COUNTRIES.length)],
-                                    calculateMarketIndicator(monthlyPrice, year, productType)
-                            );
+    /**
+     * Append the monthly rows of each complete pivot row to columns, in the
+     * same order and with the same values as the record path
+     */
+    private void emitPivot(FaostatPivot pivot, ExportDataColumns.Builder columns) {
+        EmitRows emit = selectRows(pivot);
+        MonthlySink append = (slot, date, productType, price, volume, country, indicator) ->
+                columns.add(date.toEpochDay(), productType, price, volume, country, indicator);
+        for (int i = 0; i < emit.count(); i++) {
+            expandRow(pivot, emit, i, append);
+        }
+    }
 
-                            exportDataList.add(exportData);
-                        }
-                    }
-                }
+    /**
+     * Complete pivot rows with a positive quantity. Rows of items without a
+     * product type are skipped and reported. Prices are converted to TND in
+     * one batch at each year's mid-year rate.
+     */
+    private EmitRows selectRows(FaostatPivot pivot) {
+        int[] rows = new int[pivot.size()];
+        int count = 0;
+        Set<String> unmapped = new TreeSet<>();
+        for (int row = 0; row < pivot.size(); row++) {
+            if (!PRODUCT_MAPPING.containsKey(pivot.itemCode(row))) {
+                unmapped.add(pivot.itemCode(row));
+            } else if (pivot.isComplete(row) && pivot.quantity(row) > 0) {
+                rows[count++] = row;
             }
+        }
+        if (!unmapped.isEmpty()) {
+            System.err.println("Skipped FAOSTAT item codes without a product type: " + unmapped);
+        }
 
-            System.out.println("Transformed " + exportDataList.size() + " FAOSTAT records to TND");
-
-        } catch (Exception e) {
-            System.err.println("Error processing FAOSTAT data: " + e.getMessage());
-            System.out.println("Falling back to synthetic data...");
-            exportDataList = generateSyntheticFAOData();
+        // USD price per ton (value is in 1000 USD), then TND at the year's rate
+        double[] pricesPerTon = new double[count];
+        int[] rateDays = new int[count];
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            pricesPerTon[i] = (pivot.value(row) * 1000) / pivot.quantity(row);
+            rateDays[i] = (int) LocalDate.of(pivot.year(row), 7, 1).toEpochDay();
         }
+        usdRates.convert(pricesPerTon, rateDays, pricesPerTon);
+        return new EmitRows(rows, count, pricesPerTon);
+    }
 
-        return exportDataList;
+    private void expandRow(FaostatPivot pivot, EmitRows emit, int i, MonthlySink out) {
+        int row = emit.rows()[i];
+        ProductType productType = PRODUCT_MAPPING.get(pivot.itemCode(row));
+        expandMonthly(out, i * 12, productType, pivot.year(row), emit.pricesPerTon()[i], pivot.quantity(row),
+                partitionRandom(pivot, row));
+    }
+
+    /**
+     * Random stream of one product-year, independent of how rows are scheduled.
+     * Seeded from the row's packed (series, year) key through a 64-bit mix, so
+     * neighbouring keys do not get overlapping streams.
+     */
+    private SplittableRandom partitionRandom(FaostatPivot pivot, int row) {
+        long z = seed + pivot.key(row) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
     }
 
     /**
@@ -181,6 +382,53 @@ public class FAOSTATDataTransformer {
         return data;
     }
 
+    /**
+     * Spread one annual figure over 12 mid-month records with random variation
+     */
+    private void expandMonthly(MonthlySink out, int offset, ProductType productType, int year,
+                               double pricePerTonTnd, double quantity, SplittableRandom random) {
+        for (int month = 1; month <= 12; month++) {
+            double monthlyPrice = pricePerTonTnd * (0.9 + random.nextDouble() * 0.2);
+            double monthlyVolume = quantity / 12 * (0.8 + random.nextDouble() * 0.4);
+
+            out.accept(offset + month - 1,
+                    LocalDate.of(year, month, 15), // Middle of month
+                    productType,
+                    Math.round(monthlyPrice * 100.0) / 100.0, // Round to 2 decimals
+                    Math.round(monthlyVolume * 100.0) / 100.0,
+                    DESTINATION_COUNTRIES[random.nextInt(DESTINATION_COUNTRIES.length)],
+                    calculateMarketIndicator(monthlyPrice, year, productType)
+            );
+        }
+    }
+
+    private static int headerIndex(Map<String, Integer> header, String column) {
+        for (Map.Entry<String, Integer> entry : header.entrySet()) {
+            if (entry.getKey().strip().equalsIgnoreCase(column)) {
+                return entry.getValue();
+            }
+        }
+        throw new IllegalArgumentException("Missing FAOSTAT column: " + column);
+    }
+
+    /**
+     * Parse a plain non-negative year, or -1
+     */
+    private static int parseYear(String value) {
+        if (value.isEmpty() || value.length() > 9) {
+            return -1;
+        }
+        int year = 0;
+        for (int i = 0; i < value.length(); i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            year = year * 10 + digit;
+        }
+        return year;
+    }
+
     private double parseDouble(String value) {
         if (value == null || value.trim().isEmpty()) {
             return 0.0;
@@ -203,23 +451,30 @@ public class FAOSTATDataTransformer {
     }
 
     /**
-     * Get USD to TND exchange rate
+     * Get the latest USD to TND exchange rate
      */
     public double getExchangeRate() {
-        return USD_TO_TND;
+        return usdRates.latestRate();
+    }
+
+    /**
+     * Get the USD to TND exchange rate of a year
+     */
+    public double getExchangeRate(int year) {
+        return usdRates.rate(LocalDate.of(year, 7, 1));
     }
 
     /**
-     * Convert USD to TND
+     * Convert USD to TND at the latest rate
      */
     public double convertUsdToTnd(double usdAmount) {
-        return Math.round(usdAmount * USD_TO_TND * 100.0) / 100.0;
+        return Math.round(usdAmount * usdRates.latestRate() * 100.0) / 100.0;
     }
 
     /**
-     * Convert TND to USD
+     * Convert TND to USD at the latest rate
      */
     public double convertTndToUsd(double tndAmount) {
-        return Math.round((tndAmount / USD_TO_TND) * 100.0) / 100.0;
+        return Math.round((tndAmount / usdRates.latestRate()) * 100.0) / 100.0;
     }
 }
\ No newline at end of file
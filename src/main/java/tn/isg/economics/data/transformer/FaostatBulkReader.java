@@ -0,0 +1,289 @@
+package tn.isg.economics.data.transformer;
+
+import tn.isg.economics.data.loader.ExportRecordParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Streaming reader for FAOSTAT bulk downloads (all areas, all items).
+ *
+ * Rows are filtered on their raw bytes: the Area Code (M49), Element Code and
+ * Item Code (CPC) fields are located and compared against the wanted codes
+ * before anything is decoded, so unwanted rows cost one scan of their bytes.
+ * Only matching export quantity (5910) and export value (5922) rows have their
+ * year and value parsed into the pivot. Codes may be quoted and may carry the
+ * leading apostrophe bulk files use to keep leading zeros.
+ */
+final class FaostatBulkReader {
+    static final String AREA_COLUMN = "Area Code (M49)";
+    static final String ELEMENT_COLUMN = "Element Code";
+    static final String ITEM_COLUMN = "Item Code (CPC)";
+    static final String YEAR_COLUMN = "Year";
+    static final String VALUE_COLUMN = "Value";
+
+    private static final byte[] EXPORT_QUANTITY_CODE = "5910".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXPORT_VALUE_CODE = "5922".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final String[] areaCodes;
+    private final String[] itemCodes;
+    private final byte[][] areaBytes;
+    private final byte[][] itemBytes;
+    private final int[][] seriesIds;
+
+    private int areaField;
+    private int elementField;
+    private int itemField;
+    private int yearField;
+    private int valueField;
+    private int lastField;
+
+    private final int[] fieldStarts = new int[5];
+    private final int[] fieldEnds = new int[5];
+    private char[] scratch = new char[64];
+
+    private long rowsScanned;
+    private long rowsMatched;
+
+    FaostatBulkReader(Collection<String> areaCodes, Collection<String> itemCodes) {
+        this.areaCodes = areaCodes.toArray(new String[0]);
+        this.itemCodes = itemCodes.toArray(new String[0]);
+        this.areaBytes = toBytes(this.areaCodes);
+        this.itemBytes = toBytes(this.itemCodes);
+        this.seriesIds = new int[this.areaCodes.length][this.itemCodes.length];
+        for (int[] ids : seriesIds) {
+            Arrays.fill(ids, -1);
+        }
+    }
+
+    /**
+     * Stream every row of in into the pivot; in is not closed
+     */
+    void read(InputStream in, FaostatPivot pivot) throws IOException {
+        byte[] buf = new byte[BUFFER_BYTES];
+        int filled = 0;
+        boolean headerRead = false;
+
+        while (true) {
+            int n = in.read(buf, filled, buf.length - filled);
+            boolean eof = n < 0;
+            if (!eof) {
+                filled += n;
+            }
+
+            int lineStart = 0;
+            for (int i = lineStart; i < filled; i++) {
+                if (buf[i] != '\n') {
+                    continue;
+                }
+                int lineEnd = i > lineStart && buf[i - 1] == '\r' ? i - 1 : i;
+                if (!headerRead) {
+                    readHeader(buf, lineStart, lineEnd);
+                    headerRead = true;
+                } else if (lineEnd > lineStart) {
+                    processRow(buf, lineStart, lineEnd, pivot);
+                }
+                lineStart = i + 1;
+            }
+
+            if (eof) {
+                if (lineStart < filled) {
+                    int lineEnd = buf[filled - 1] == '\r' ? filled - 1 : filled;
+                    if (!headerRead) {
+                        readHeader(buf, lineStart, lineEnd);
+                    } else {
+                        processRow(buf, lineStart, lineEnd, pivot);
+                    }
+                }
+                return;
+            }
+
+            // Keep the partial last line and make room for more input
+            System.arraycopy(buf, lineStart, buf, 0, filled - lineStart);
+            filled -= lineStart;
+            if (filled == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+        }
+    }
+
+    long getRowsScanned() {
+        return rowsScanned;
+    }
+
+    long getRowsMatched() {
+        return rowsMatched;
+    }
+
+    private void readHeader(byte[] buf, int start, int end) {
+        String[] names = new String(buf, start, end - start, StandardCharsets.UTF_8).split(",", -1);
+        areaField = column(names, AREA_COLUMN);
+        elementField = column(names, ELEMENT_COLUMN);
+        itemField = column(names, ITEM_COLUMN);
+        yearField = column(names, YEAR_COLUMN);
+        valueField = column(names, VALUE_COLUMN);
+        lastField = Math.max(Math.max(areaField, elementField), Math.max(itemField, Math.max(yearField, valueField)));
+    }
+
+    private static int column(String[] names, String wanted) {
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].strip();
+            if (!name.isEmpty() && name.charAt(0) == '\uFEFF') {
+                name = name.substring(1);
+            }
+            if (name.length() >= 2 && name.charAt(0) == '"' && name.charAt(name.length() - 1) == '"') {
+                name = name.substring(1, name.length() - 1);
+            }
+            if (name.equalsIgnoreCase(wanted)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Missing FAOSTAT column: " + wanted);
+    }
+
+    private void processRow(byte[] buf, int start, int end, FaostatPivot pivot) {
+        rowsScanned++;
+        if (!locateFields(buf, start, end)) {
+            return;
+        }
+
+        // Cheapest and most selective checks first: element, then area, then item
+        boolean isQuantity = matches(buf, fieldStarts[1], fieldEnds[1], EXPORT_QUANTITY_CODE);
+        if (!isQuantity && !matches(buf, fieldStarts[1], fieldEnds[1], EXPORT_VALUE_CODE)) {
+            return;
+        }
+        int area = indexOf(areaBytes, buf, fieldStarts[0], fieldEnds[0]);
+        if (area < 0) {
+            return;
+        }
+        int item = indexOf(itemBytes, buf, fieldStarts[2], fieldEnds[2]);
+        if (item < 0) {
+            return;
+        }
+
+        int year = parseYear(buf, fieldStarts[3], fieldEnds[3]);
+        double value = parseValue(buf, fieldStarts[4], fieldEnds[4]);
+        if (year < 0 || Double.isNaN(value) || value == 0) {
+            return;
+        }
+
+        rowsMatched++;
+        int seriesId = seriesIds[area][item];
+        if (seriesId < 0) {
+            seriesId = pivot.seriesId(areaCodes[area], itemCodes[item]);
+            seriesIds[area][item] = seriesId;
+        }
+        if (isQuantity) {
+            pivot.putQuantity(seriesId, year, value);
+        } else {
+            pivot.putValue(seriesId, year, value);
+        }
+    }
+
+    /**
+     * Find the ranges of the five wanted fields, unquoted and without a leading apostrophe
+     */
+    private boolean locateFields(byte[] buf, int start, int end) {
+        int field = 0;
+        int pos = start;
+        while (field <= lastField) {
+            if (pos > end) {
+                return false;
+            }
+            int fieldStart;
+            int fieldEnd;
+            int next;
+            if (pos < end && buf[pos] == '"') {
+                fieldStart = pos + 1;
+                int q = fieldStart;
+                while (q < end && !(buf[q] == '"' && (q + 1 >= end || buf[q + 1] != '"'))) {
+                    q += buf[q] == '"' ? 2 : 1;
+                }
+                fieldEnd = q;
+                next = q + 1;
+                while (next < end && buf[next] != ',') {
+                    next++;
+                }
+            } else {
+                fieldStart = pos;
+                next = pos;
+                while (next < end && buf[next] != ',') {
+                    next++;
+                }
+                fieldEnd = next;
+            }
+            if (fieldStart < fieldEnd && buf[fieldStart] == '\'') {
+                fieldStart++;
+            }
+
+            int slot = field == areaField ? 0 : field == elementField ? 1 : field == itemField ? 2
+                    : field == yearField ? 3 : field == valueField ? 4 : -1;
+            if (slot >= 0) {
+                fieldStarts[slot] = fieldStart;
+                fieldEnds[slot] = fieldEnd;
+            }
+            field++;
+            pos = next + 1;
+        }
+        return true;
+    }
+
+    private static boolean matches(byte[] buf, int start, int end, byte[] code) {
+        if (end - start != code.length) {
+            return false;
+        }
+        for (int i = 0; i < code.length; i++) {
+            if (buf[start + i] != code[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[][] codes, byte[] buf, int start, int end) {
+        for (int i = 0; i < codes.length; i++) {
+            if (matches(buf, start, end, codes[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseYear(byte[] buf, int start, int end) {
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
+        int year = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            year = year * 10 + digit;
+        }
+        return year;
+    }
+
+    private double parseValue(byte[] buf, int start, int end) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new char[length];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = (char) (buf[start + i] & 0xff);
+        }
+        return ExportRecordParser.parseDecimal(scratch, 0, length);
+    }
+
+    private static byte[][] toBytes(String[] codes) {
+        byte[][] bytes = new byte[codes.length][];
+        for (int i = 0; i < codes.length; i++) {
+            bytes[i] = codes[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
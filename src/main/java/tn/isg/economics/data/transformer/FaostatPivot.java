@@ -0,0 +1,187 @@
+package tn.isg.economics.data.transformer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pivot of FAOSTAT export rows by (series, year), where a series is an item
+ * code, optionally qualified by the reporting area.
+ *
+ * Series get dense int ids, and each (series id, year) pair is packed into a
+ * long key. An open-addressing table maps keys to row slots; export quantity
+ * and export value live in parallel primitive arrays, so accumulating a row
+ * neither allocates nor boxes. Rows keep first-seen order.
+ */
+final class FaostatPivot {
+    private static final long EMPTY = -1L;
+    private static final byte HAS_QUANTITY = 1;
+    private static final byte HAS_VALUE = 2;
+
+    private final Map<String, Integer> seriesIds = new HashMap<>();
+    private final List<String> areaCodes = new ArrayList<>();
+    private final List<String> itemCodes = new ArrayList<>();
+
+    private long[] table;
+    private int[] tableRows;
+    private int mask;
+
+    private int size;
+    private long[] keys;
+    private double[] quantities;
+    private double[] values;
+    private byte[] present;
+
+    FaostatPivot() {
+        this(64);
+    }
+
+    FaostatPivot(int expectedRows) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedRows) * 2 - 1) << 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        tableRows = new int[capacity];
+        mask = capacity - 1;
+        keys = new long[capacity / 2];
+        quantities = new double[capacity / 2];
+        values = new double[capacity / 2];
+        present = new byte[capacity / 2];
+    }
+
+    /**
+     * Dense id of an item code (area not tracked), assigned on first use
+     */
+    int itemId(String itemCode) {
+        return seriesId(null, itemCode);
+    }
+
+    /**
+     * Dense id of an (area code, item code) series, assigned on first use
+     */
+    int seriesId(String areaCode, String itemCode) {
+        String key = areaCode == null ? itemCode : areaCode + '|' + itemCode;
+        Integer id = seriesIds.get(key);
+        if (id == null) {
+            id = itemCodes.size();
+            seriesIds.put(key, id);
+            areaCodes.add(areaCode);
+            itemCodes.add(itemCode);
+        }
+        return id;
+    }
+
+    static long pack(int seriesId, int year) {
+        return ((long) seriesId << 32) | (year & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Record the export quantity for (series, year); a later row replaces an earlier one
+     */
+    void putQuantity(int seriesId, int year, double quantity) {
+        int row = rowFor(pack(seriesId, year));
+        quantities[row] = quantity;
+        present[row] |= HAS_QUANTITY;
+    }
+
+    /**
+     * Record the export value for (series, year); a later row replaces an earlier one
+     */
+    void putValue(int seriesId, int year, double value) {
+        int row = rowFor(pack(seriesId, year));
+        values[row] = value;
+        present[row] |= HAS_VALUE;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String itemCode(int row) {
+        return itemCodes.get((int) (keys[row] >>> 32));
+    }
+
+    /**
+     * Area code of the row's series, or null when areas are not tracked
+     */
+    String areaCode(int row) {
+        return areaCodes.get((int) (keys[row] >>> 32));
+    }
+
+    /**
+     * Packed (series id, year) key of the row; series ids follow first-seen order
+     */
+    long key(int row) {
+        return keys[row];
+    }
+
+    int year(int row) {
+        return (int) keys[row];
+    }
+
+    /**
+     * Whether both quantity and value were seen for the row
+     */
+    boolean isComplete(int row) {
+        return present[row] == (HAS_QUANTITY | HAS_VALUE);
+    }
+
+    double quantity(int row) {
+        return quantities[row];
+    }
+
+    double value(int row) {
+        return values[row];
+    }
+
+    private int rowFor(long key) {
+        int slot = mix(key) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) {
+                return tableRows[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == keys.length) {
+            growRows();
+        }
+        int row = size++;
+        keys[row] = key;
+        table[slot] = key;
+        tableRows[slot] = row;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return row;
+    }
+
+    private void growRows() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        values = Arrays.copyOf(values, capacity);
+        present = Arrays.copyOf(present, capacity);
+    }
+
+    private void rehash(int capacity) {
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        tableRows = new int[capacity];
+        mask = capacity - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = mix(keys[row]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = keys[row];
+            tableRows[slot] = row;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
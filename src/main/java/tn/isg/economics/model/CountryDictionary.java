@@ -0,0 +1,220 @@
+package tn.isg.economics.model;
+
+import java.util.Arrays;
+
+/**
+ * Shared dictionary mapping destination country names to dense int ids.
+ *
+ * Ids are assigned in registration order and never change, so they can index
+ * plain arrays for grouping and filtering. Lookups are lock-free reads of an
+ * open-addressing table (also from a char range, without creating a String).
+ * Registrations are serialized: a new name is written into free slots of the
+ * current arrays and published with the new size, so a registration is O(1)
+ * and the arrays are only copied when the table grows. Readers ignore ids at
+ * or beyond the size they saw. Returning the registered instance from
+ * {@link #canonical} lets ingest share one String per country instead of one
+ * per row.
+ *
+ * The dictionary holds at most maxCountries names. Once full, every new name
+ * maps to the {@link #OVERFLOW} entry, so free-form junk in a country column
+ * cannot grow it without bound.
+ */
+public final class CountryDictionary {
+    /** Name that unregistered countries resolve to once the dictionary is full */
+    public static final String OVERFLOW = "Other";
+    public static final int DEFAULT_MAX_COUNTRIES = 1024;
+
+    private static final CountryDictionary GLOBAL = new CountryDictionary();
+
+    /**
+     * Published view of the arrays: names by id plus a hash table of ids. Slots
+     * and names below size are never changed once published.
+     */
+    private record Table(String[] names, int size, int[] slots, int[] hashes) {
+    }
+
+    private final int maxCountries;
+    private volatile Table table = new Table(new String[16], 0, emptySlots(32), new int[32]);
+    private int overflowId = -1;
+
+    public CountryDictionary() {
+        this(DEFAULT_MAX_COUNTRIES);
+    }
+
+    /**
+     * @param maxCountries names registered before new ones map to OVERFLOW
+     */
+    public CountryDictionary(int maxCountries) {
+        if (maxCountries < 2) {
+            throw new IllegalArgumentException("Dictionary must hold at least 2 countries: " + maxCountries);
+        }
+        this.maxCountries = maxCountries;
+    }
+
+    /**
+     * The process-wide dictionary used by ingest and the columnar store
+     */
+    public static CountryDictionary global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Id of the country, registering it if it is new
+     */
+    public int idOf(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Country name cannot be null");
+        }
+        int id = find(table, name.hashCode(), name);
+        return id >= 0 ? id : register(name);
+    }
+
+    /**
+     * Id of the country spelled by buf[start, end), registering it if it is new.
+     * Known countries are resolved without allocating.
+     */
+    public int idOf(char[] buf, int start, int end) {
+        Table current = table;
+        int hash = hash(buf, start, end);
+        int mask = current.slots().length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = current.slots()[slot];
+            if (id < 0 || id >= current.size()) {
+                break;
+            }
+            if (current.hashes()[slot] == hash && matches(current.names()[id], buf, start, end)) {
+                return id;
+            }
+        }
+        return register(new String(buf, start, end - start));
+    }
+
+    /**
+     * Id of an already registered country, or -1 (never registers)
+     */
+    public int lookup(String name) {
+        return name == null ? -1 : find(table, name.hashCode(), name);
+    }
+
+    /**
+     * The shared String instance for this country name
+     */
+    public String canonical(String name) {
+        return name(idOf(name));
+    }
+
+    public String canonical(char[] buf, int start, int end) {
+        return name(idOf(buf, start, end));
+    }
+
+    public String name(int id) {
+        Table current = table;
+        if (id < 0 || id >= current.size()) {
+            throw new IndexOutOfBoundsException("Unknown country id: " + id);
+        }
+        return current.names()[id];
+    }
+
+    /**
+     * Number of registered countries; valid ids are 0..size()-1
+     */
+    public int size() {
+        return table.size();
+    }
+
+    private static int find(Table current, int hash, String name) {
+        int mask = current.slots().length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = current.slots()[slot];
+            // Slots filled after this table was published are still empty for it
+            if (id < 0 || id >= current.size()) {
+                return -1;
+            }
+            if (current.hashes()[slot] == hash && current.names()[id].equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    private synchronized int register(String name) {
+        Table current = table;
+        int hash = name.hashCode();
+        int existing = find(current, hash, name);
+        if (existing >= 0) {
+            return existing;
+        }
+        if (current.size() >= maxCountries - (overflowId < 0 ? 1 : 0)) {
+            if (overflowId < 0) {
+                int registered = find(current, OVERFLOW.hashCode(), OVERFLOW);
+                overflowId = registered >= 0 ? registered : append(current, OVERFLOW);
+            }
+            return overflowId;
+        }
+        return append(current, name);
+    }
+
+    /**
+     * Add a name under the next id; callers hold the lock and checked it is absent
+     */
+    private int append(Table current, String name) {
+        int id = current.size();
+        String[] names = current.names();
+        int[] slots = current.slots();
+        int[] hashes = current.hashes();
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = name;
+
+        if ((id + 1) * 2 > slots.length) {
+            slots = emptySlots(slots.length * 2);
+            hashes = new int[slots.length];
+            for (int i = 0; i < id; i++) {
+                insert(slots, hashes, names[i].hashCode(), i);
+            }
+        }
+        insert(slots, hashes, name.hashCode(), id);
+
+        table = new Table(names, id + 1, slots, hashes);
+        return id;
+    }
+
+    private static void insert(int[] slots, int[] hashes, int hash, int id) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id;
+        hashes[slot] = hash;
+    }
+
+    /**
+     * Same function as String.hashCode for the chars in range
+     */
+    private static int hash(char[] buf, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buf[i];
+        }
+        return h;
+    }
+
+    private static boolean matches(String name, char[] buf, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != buf[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] emptySlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, -1);
+        return slots;
+    }
+}
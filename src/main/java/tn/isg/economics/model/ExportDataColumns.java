@@ -0,0 +1,379 @@
+package tn.isg.economics.model;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Columnar (struct-of-arrays) store for export records.
+ * Each field lives in its own primitive array, countries are encoded as ids of the
+ * shared {@link CountryDictionary},
+ * and enums are stored as ordinals. Scans run as tight loops over primitives;
+ * {@link #asList()} gives existing callers a List&lt;ExportData&gt; view that
+ * materializes records on access without copying the columns.
+ */
+public final class ExportDataColumns {
+    private static final ProductType[] PRODUCTS = ProductType.values();
+    private static final MarketIndicator[] INDICATORS = MarketIndicator.values();
+
+    private final int size;
+    private final int[] epochDays;
+    private final byte[] products;
+    private final double[] prices;
+    private final double[] volumes;
+    private final int[] countries;
+    private final byte[] indicators;
+    private final CountryDictionary dictionary;
+
+    private ExportDataColumns(int size, int[] epochDays, byte[] products, double[] prices,
+                              double[] volumes, int[] countries, byte[] indicators, CountryDictionary dictionary) {
+        this.size = size;
+        this.epochDays = epochDays;
+        this.products = products;
+        this.prices = prices;
+        this.volumes = volumes;
+        this.countries = countries;
+        this.indicators = indicators;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Wrap pre-built column arrays without copying them.
+     * All arrays must hold at least size entries and country ids must be registered in dictionary.
+     */
+    public static ExportDataColumns wrap(int size, int[] epochDays, byte[] products, double[] prices,
+                                         double[] volumes, int[] countries, byte[] indicators,
+                                         CountryDictionary dictionary) {
+        if (size < 0 || epochDays.length < size || products.length < size || prices.length < size
+                || volumes.length < size || countries.length < size || indicators.length < size) {
+            throw new IllegalArgumentException("Column arrays shorter than size " + size);
+        }
+        int countryCount = dictionary.size();
+        for (int i = 0; i < size; i++) {
+            if (countries[i] < 0 || countries[i] >= countryCount
+                    || products[i] < 0 || products[i] >= PRODUCTS.length
+                    || indicators[i] < 0 || indicators[i] >= INDICATORS.length) {
+                throw new IllegalArgumentException("Invalid dictionary or enum code at row " + i);
+            }
+        }
+        return new ExportDataColumns(size, epochDays, products, prices, volumes, countries, indicators,
+                dictionary);
+    }
+
+    public static Builder builder() {
+        return new Builder(1024, CountryDictionary.global());
+    }
+
+    public static Builder builder(int expectedRows) {
+        return new Builder(Math.max(16, expectedRows), CountryDictionary.global());
+    }
+
+    /**
+     * Copy existing records into columnar form
+     */
+    public static ExportDataColumns from(Collection<ExportData> records) {
+        Builder builder = builder(records.size());
+        for (ExportData record : records) {
+            builder.add(record);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int epochDay(int row) {
+        return epochDays[checkRow(row)];
+    }
+
+    public LocalDate date(int row) {
+        return LocalDate.ofEpochDay(epochDays[checkRow(row)]);
+    }
+
+    public ProductType productType(int row) {
+        return PRODUCTS[products[checkRow(row)]];
+    }
+
+    public double pricePerTon(int row) {
+        return prices[checkRow(row)];
+    }
+
+    public double volume(int row) {
+        return volumes[checkRow(row)];
+    }
+
+    public int countryId(int row) {
+        return countries[checkRow(row)];
+    }
+
+    public String destinationCountry(int row) {
+        return dictionary.name(countries[checkRow(row)]);
+    }
+
+    public MarketIndicator indicator(int row) {
+        return INDICATORS[indicators[checkRow(row)]];
+    }
+
+    /**
+     * Upper bound (exclusive) of the country ids in this store, for sizing per-country arrays
+     */
+    public int countryCount() {
+        return dictionary.size();
+    }
+
+    public String countryName(int countryId) {
+        return dictionary.name(countryId);
+    }
+
+    /**
+     * Dictionary id of a country name, or -1 if it is unknown
+     */
+    public int lookupCountry(String name) {
+        return dictionary.lookup(name);
+    }
+
+    public CountryDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Materialize one row as an ExportData record
+     */
+    public ExportData get(int row) {
+        checkRow(row);
+        return new ExportData(
+                LocalDate.ofEpochDay(epochDays[row]),
+                PRODUCTS[products[row]],
+                prices[row],
+                volumes[row],
+                dictionary.name(countries[row]),
+                INDICATORS[indicators[row]]
+        );
+    }
+
+    /**
+     * Read-only List view over the columns; records are created on access
+     */
+    public List<ExportData> asList() {
+        return new RecordView();
+    }
+
+    // ---- Primitive scans ----
+
+    /**
+     * Average price per ProductType, indexed by ordinal (NaN when a product has no rows)
+     */
+    public double[] averagePriceByProduct() {
+        double[] sums = new double[PRODUCTS.length];
+        int[] counts = new int[PRODUCTS.length];
+        for (int i = 0; i < size; i++) {
+            int product = products[i];
+            sums[product] += prices[i];
+            counts[product]++;
+        }
+        for (int p = 0; p < sums.length; p++) {
+            sums[p] = counts[p] > 0 ? sums[p] / counts[p] : Double.NaN;
+        }
+        return sums;
+    }
+
+    public double averagePrice(ProductType productType) {
+        return averagePriceByProduct()[productType.ordinal()];
+    }
+
+    /**
+     * Sum of price * volume over all rows
+     */
+    public double totalExportValue() {
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += prices[i] * volumes[i];
+        }
+        return total;
+    }
+
+    public double averageVolume() {
+        if (size == 0) {
+            return 0.0;
+        }
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += volumes[i];
+        }
+        return total / size;
+    }
+
+    /**
+     * Row count per destination country, indexed by country id
+     */
+    public int[] countByCountry() {
+        int[] counts = new int[dictionary.size()];
+        for (int i = 0; i < size; i++) {
+            counts[countries[i]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Export value (price * volume) per destination country, indexed by country id
+     */
+    public double[] exportValueByCountry() {
+        double[] values = new double[dictionary.size()];
+        for (int i = 0; i < size; i++) {
+            values[countries[i]] += prices[i] * volumes[i];
+        }
+        return values;
+    }
+
+    /**
+     * Row indices matching a product (null for any) within [fromDate, toDate]
+     */
+    public int[] filter(ProductType productType, LocalDate fromDate, LocalDate toDate) {
+        int product = productType != null ? productType.ordinal() : -1;
+        long from = fromDate != null ? fromDate.toEpochDay() : Long.MIN_VALUE;
+        long to = toDate != null ? toDate.toEpochDay() : Long.MAX_VALUE;
+
+        int[] selected = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if ((product < 0 || products[i] == product) && day >= from && day <= to) {
+                selected[count++] = i;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Row indices whose price lies within [minPrice, maxPrice]
+     */
+    public int[] filterByPrice(double minPrice, double maxPrice) {
+        int[] selected = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            double price = prices[i];
+            if (price >= minPrice && price <= maxPrice) {
+                selected[count++] = i;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * New store holding only the given rows, in the given order
+     */
+    public ExportDataColumns select(int[] rows) {
+        int n = rows.length;
+        int[] days = new int[n];
+        byte[] prods = new byte[n];
+        double[] prs = new double[n];
+        double[] vols = new double[n];
+        int[] ctrs = new int[n];
+        byte[] inds = new byte[n];
+        for (int i = 0; i < n; i++) {
+            int row = checkRow(rows[i]);
+            days[i] = epochDays[row];
+            prods[i] = products[row];
+            prs[i] = prices[row];
+            vols[i] = volumes[row];
+            ctrs[i] = countries[row];
+            inds[i] = indicators[row];
+        }
+        return new ExportDataColumns(n, days, prods, prs, vols, ctrs, inds, dictionary);
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+
+    private final class RecordView extends AbstractList<ExportData> implements RandomAccess {
+        @Override
+        public ExportData get(int index) {
+            return ExportDataColumns.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Append-only builder with amortized array growth
+     */
+    public static final class Builder {
+        private int size;
+        private int[] epochDays;
+        private byte[] products;
+        private double[] prices;
+        private double[] volumes;
+        private int[] countries;
+        private byte[] indicators;
+        private final CountryDictionary dictionary;
+
+        private Builder(int capacity, CountryDictionary dictionary) {
+            this.dictionary = dictionary;
+            epochDays = new int[capacity];
+            products = new byte[capacity];
+            prices = new double[capacity];
+            volumes = new double[capacity];
+            countries = new int[capacity];
+            indicators = new byte[capacity];
+        }
+
+        public Builder add(ExportData record) {
+            return add(record.date().toEpochDay(), record.productType(), record.pricePerTon(),
+                    record.volume(), record.destinationCountry(), record.indicator());
+        }
+
+        public Builder add(long epochDay, ProductType productType, double pricePerTon, double volume,
+                           String destinationCountry, MarketIndicator indicator) {
+            if (pricePerTon < 0) {
+                throw new IllegalArgumentException("Price cannot be negative");
+            }
+            if (size == epochDays.length) {
+                grow();
+            }
+            epochDays[size] = Math.toIntExact(epochDay);
+            products[size] = (byte) productType.ordinal();
+            prices[size] = pricePerTon;
+            volumes[size] = volume;
+            countries[size] = dictionary.idOf(destinationCountry);
+            indicators[size] = (byte) indicator.ordinal();
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public ExportDataColumns build() {
+            return new ExportDataColumns(size,
+                    Arrays.copyOf(epochDays, size),
+                    Arrays.copyOf(products, size),
+                    Arrays.copyOf(prices, size),
+                    Arrays.copyOf(volumes, size),
+                    Arrays.copyOf(countries, size),
+                    Arrays.copyOf(indicators, size),
+                    dictionary);
+        }
+
+        private void grow() {
+            int capacity = epochDays.length + (epochDays.length >> 1) + 1;
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            products = Arrays.copyOf(products, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            countries = Arrays.copyOf(countries, capacity);
+            indicators = Arrays.copyOf(indicators, capacity);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package tn.isg.economics.model;
+
+/**
+ * Monthly seasonality and yearly trend of export prices, following the
+ * Tunisian agricultural calendar. Shared by the forecasting service and the
+ * synthetic data generator so generated data has the shape the model expects.
+ */
+public final class MarketSeasonality {
+    private static final double[] FLAT = {1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0};
+    private static final double[][] MULTIPLIERS = new double[ProductType.values().length][];
+
+    static {
+        // Olive Oil: Peak in Nov-Dec (harvest season)
+        MULTIPLIERS[ProductType.OLIVE_OIL.ordinal()] = new double[]{1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.1, 1.2, 1.3, 1.2};
+        // Dates: Peak in Sep-Oct
+        MULTIPLIERS[ProductType.DATES.ordinal()] = new double[]{1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.1, 1.2, 1.3, 1.3, 1.1, 1.0};
+        // Citrus: Peak in Dec-Feb
+        MULTIPLIERS[ProductType.CITRUS_FRUITS.ordinal()] = new double[]{1.3, 1.3, 1.2, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.1, 1.2};
+        // Wheat: Peak in Jun-Aug
+        MULTIPLIERS[ProductType.WHEAT.ordinal()] = new double[]{1.0, 1.0, 1.0, 1.0, 1.1, 1.2, 1.3, 1.3, 1.1, 1.0, 1.0, 1.0};
+        for (int i = 0; i < MULTIPLIERS.length; i++) {
+            if (MULTIPLIERS[i] == null) {
+                MULTIPLIERS[i] = FLAT;
+            }
+        }
+    }
+
+    private MarketSeasonality() {
+    }
+
+    /**
+     * Price multiplier of a product in a month (1-12)
+     */
+    public static double multiplier(ProductType product, int month) {
+        return MULTIPLIERS[product.ordinal()][month - 1];
+    }
+
+    /**
+     * Upward price trend of recent years relative to the pre-2019 level
+     */
+    public static double trendFactor(int year) {
+        if (year >= 2023) return 1.15; // 15% upward trend
+        if (year >= 2021) return 1.10; // 10% upward trend
+        if (year >= 2019) return 1.05; // 5% upward trend
+        return 1.0; // Stable
+    }
+}
@@ -3,13 +3,19 @@ package tn.isg.economics.service;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import tn.isg.economics.ai.BaseAIModel;
+import tn.isg.economics.data.snapshot.SnapshotStore;
 import tn.isg.economics.model.ExportData;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.exception.ModelException;
+import tn.isg.economics.util.ConfigLoader;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Data
@@ -27,6 +33,12 @@ public class EconomicIntelligenceService {
     @Builder.Default
     private List<PricePrediction> predictionHistory = new ArrayList<>();
     
+    // Guards predictionHistory: ingest threads append while the UI or a shutdown hook reads it
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Object historyLock = new Object();
+    
     /**
      * Analyze exports and generate predictions
      */
@@ -49,7 +61,9 @@ public class EconomicIntelligenceService {
         List<PricePrediction> predictions = predictionModel.predictBatch(validExports);
         
         // Store in history
-        predictionHistory.addAll(predictions);
+        synchronized (historyLock) {
+            predictionHistory.addAll(predictions);
+        }
         
         // Filter high-confidence predictions
         return predictions.stream()
@@ -57,6 +71,50 @@ public class EconomicIntelligenceService {
             .collect(Collectors.toList());
     }
     
+    /**
+     * Analyze a stream of exports in fixed-size batches.
+     * Only one batch of exports is held in memory at a time; high-confidence
+     * predictions are handed to the sink as each batch completes and are not
+     * kept in the prediction history.
+     * @return number of valid exports analyzed
+     */
+    public long analyzeExports(Stream<ExportData> exports, int batchSize,
+                               java.util.function.Consumer<PricePrediction> sink) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        
+        List<ExportData> batch = new ArrayList<>(batchSize);
+        long analyzed = 0;
+        
+        Iterator<ExportData> iterator = exports.iterator();
+        while (iterator.hasNext()) {
+            ExportData export = iterator.next();
+            if (export == null || export.pricePerTon() <= 0 || export.volume() <= 0) {
+                continue;
+            }
+            batch.add(export);
+            if (batch.size() == batchSize) {
+                analyzed += analyzeBatch(batch, sink);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            analyzed += analyzeBatch(batch, sink);
+        }
+        
+        log.info("Analyzed {} streamed export records in batches of {}", analyzed, batchSize);
+        return analyzed;
+    }
+    
+    private int analyzeBatch(List<ExportData> batch, java.util.function.Consumer<PricePrediction> sink) {
+        List<PricePrediction> predictions = predictionModel.predictBatch(batch);
+        predictions.stream()
+            .filter(p -> p.confidence() > 0.7)
+            .forEach(sink);
+        return batch.size();
+    }
+    
     /**
      * Generate market intelligence report
      */
@@ -167,20 +225,98 @@ public class EconomicIntelligenceService {
     }
     
     /**
-     * Get all prediction history
+     * Copy of the prediction history
      */
     public List<PricePrediction> getPredictionHistory() {
-        return Collections.unmodifiableList(predictionHistory);
+        synchronized (historyLock) {
+            return List.copyOf(predictionHistory);
+        }
+    }
+    
+    /**
+     * Add predictions made outside analyzeExports, such as forecasts, to the history
+     */
+    public void recordPredictions(List<PricePrediction> predictions) {
+        synchronized (historyLock) {
+            predictionHistory.addAll(predictions);
+        }
     }
     
     /**
      * Clear prediction history
      */
     public void clearHistory() {
-        predictionHistory.clear();
+        synchronized (historyLock) {
+            predictionHistory.clear();
+        }
         log.info("Prediction history cleared");
     }
     
+    /**
+     * Save the newest prediction.history.max.records predictions as a binary snapshot
+     */
+    public void saveHistorySnapshot(Path target) throws IOException {
+        saveHistorySnapshot(target, ConfigLoader.getPredictionHistoryMaxRecords());
+    }
+    
+    /**
+     * Save the newest maxRecords predictions as a binary snapshot. Older ones are
+     * dropped from the history too, so the file and the next startup stay bounded.
+     */
+    public void saveHistorySnapshot(Path target, int maxRecords) throws IOException {
+        List<PricePrediction> retained;
+        synchronized (historyLock) {
+            int excess = predictionHistory.size() - Math.max(0, maxRecords);
+            if (excess > 0) {
+                predictionHistory.subList(0, excess).clear();
+            }
+            retained = List.copyOf(predictionHistory);
+        }
+        new SnapshotStore().writePredictions(retained, target);
+    }
+    
+    /**
+     * Restore prediction history from a binary snapshot, appending to the current history
+     */
+    public void loadHistorySnapshot(Path source) throws IOException {
+        List<PricePrediction> restored = new SnapshotStore().readPredictions(source);
+        recordPredictions(restored);
+        log.info("Restored {} predictions from snapshot {}", restored.size(), source);
+    }
+    
+    /**
+     * Restore the history from source if it exists; an unreadable snapshot is logged and skipped
+     * @return number of predictions restored
+     */
+    public int restoreHistory(Path source) {
+        if (!Files.exists(source)) {
+            return 0;
+        }
+        int before = getPredictionHistory().size();
+        try {
+            loadHistorySnapshot(source);
+        } catch (IOException e) {
+            log.warn("Prediction history not restored from {}: {}", source, e.getMessage());
+        }
+        return getPredictionHistory().size() - before;
+    }
+    
+    /**
+     * Save the bounded history to target, logging a failure instead of throwing
+     * @return number of predictions saved, or -1 if the snapshot could not be written
+     */
+    public int persistHistory(Path target) {
+        try {
+            saveHistorySnapshot(target);
+            int saved = getPredictionHistory().size();
+            log.info("Saved {} predictions to {}", saved, target);
+            return saved;
+        } catch (IOException e) {
+            log.warn("Prediction history not saved to {}: {}", target, e.getMessage());
+            return -1;
+        }
+    }
+    
     /**
      * Export predictions to CSV format
      */
@@ -1,6 +1,9 @@
 package tn.isg.economics.util;
 
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
 import java.util.Properties;
+import java.util.Set;
 
 public class ConfigLoader {
     private static final Properties props = new Properties();
@@ -12,11 +15,36 @@ public class ConfigLoader {
         props.setProperty("app.environment", "development");
         props.setProperty("data.synthetic.enabled", "true");
         props.setProperty("data.export.csv.path", "data/datasets/raw/exports.csv");
+        props.setProperty("data.processed.path", "data/datasets/processed/");
+        props.setProperty("data.raw.path", "data/datasets/raw/");
+        props.setProperty("data.loader.rejects.file", "false");
+        props.setProperty("prediction.history.max.records", "100000");
+        props.setProperty("data.raw.checkpoint", "data/datasets/processed/raw_ingest.offsets");
+        props.setProperty("data.cache.key.mode", "content");
+        props.setProperty("data.cleaner.dedup.max.memory.records", "4000000");
+        props.setProperty("data.cleaner.dedup.spill.partitions", "64");
+        props.setProperty("data.cleaner.outlier.method", "iqr");
+        props.setProperty("data.cleaner.outlier.factor", "3.0");
+        props.setProperty("data.synthetic.profile", "uniform");
+        props.setProperty("data.synthetic.rows", "1K");
+        props.setProperty("currency.rates.path", "data/datasets/raw/exchange_rates_tnd.csv");
+        props.setProperty("data.loader.max.concurrent.files",
+                String.valueOf(Runtime.getRuntime().availableProcessors()));
+        props.setProperty("faostat.area.codes", "788");
+        props.setProperty("faostat.item.codes", "01314,2167,01450,01323,01329");
+        props.setProperty("faostat.expansion.seed", "42");
         props.setProperty("llm.provider", "ollama");
         props.setProperty("llm.ollama.base.url", "http://localhost:11434");
         props.setProperty("llm.ollama.model", "llama2");
         props.setProperty("ai.model.default", "djl-lstm");
         props.setProperty("ai.model.djl.path", "resources/models/djl/price_predictor.zip");
+        props.setProperty("ai.timeseries.window", "8192");
+        props.setProperty("djl.batch_size", "32");
+        props.setProperty("djl.predictor.pool.size",
+                String.valueOf(Runtime.getRuntime().availableProcessors()));
+        props.setProperty("ai.model.onnx.path", "resources/models/onnx/price_model.onnx");
+        props.setProperty("ai.onnx.intra.op.threads", "0");
+        props.setProperty("ai.onnx.inter.op.threads", "0");
     }
     
     public static String getProperty(String key) {
@@ -59,6 +87,41 @@ public class ConfigLoader {
         return getProperty(key, "resources/models/" + modelType + "/default.model");
     }
     
+    /**
+     * Most recent prices per product the time series forecaster keeps
+     */
+    public static int getTimeSeriesWindow() {
+        return getIntProperty("ai.timeseries.window", 8192);
+    }
+    
+    /**
+     * Records stacked into one DJL forward pass
+     */
+    public static int getDjlBatchSize() {
+        return getIntProperty("djl.batch_size", 32);
+    }
+    
+    /**
+     * DJL predictors kept for concurrent callers
+     */
+    public static int getDjlPredictorPoolSize() {
+        return getIntProperty("djl.predictor.pool.size", Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Threads ONNX Runtime uses inside one operator; 0 lets the runtime decide
+     */
+    public static int getOnnxIntraOpThreads() {
+        return getIntProperty("ai.onnx.intra.op.threads", 0);
+    }
+    
+    /**
+     * Threads ONNX Runtime uses to run independent operators; 0 lets the runtime decide
+     */
+    public static int getOnnxInterOpThreads() {
+        return getIntProperty("ai.onnx.inter.op.threads", 0);
+    }
+    
     public static Object getModelConfig() {
         // Return a simple default config
         return "{\"models\":{\"default\":{\"type\":\"LSTM\"}}}";
@@ -72,6 +135,127 @@ public class ConfigLoader {
         return getProperty("data.export.csv.path", "data/datasets/raw/exports.csv");
     }
     
+    public static String getProcessedDataPath() {
+        return getProperty("data.processed.path", "data/datasets/processed/");
+    }
+    
+    /**
+     * Prediction history snapshot, kept in the processed data directory
+     */
+    public static String getHistorySnapshotPath() {
+        return Path.of(getProcessedDataPath(), "prediction_history.snap").toString();
+    }
+    
+    /**
+     * Whether loads write rejected rows to a side file in the processed data directory
+     */
+    public static boolean isRejectsFileEnabled() {
+        return getBooleanProperty("data.loader.rejects.file", false);
+    }
+    
+    /**
+     * Newest predictions kept when the prediction history snapshot is saved
+     */
+    public static int getPredictionHistoryMaxRecords() {
+        return getIntProperty("prediction.history.max.records", 100_000);
+    }
+    
+    public static String getRawDataPath() {
+        return getProperty("data.raw.path", "data/datasets/raw/");
+    }
+    
+    public static String getRawIngestCheckpointPath() {
+        return getProperty("data.raw.checkpoint", "data/datasets/processed/raw_ingest.offsets");
+    }
+    
+    /**
+     * Distinct records deduplication keeps in memory before spilling fingerprints to disk
+     */
+    public static int getDedupMaxInMemoryRecords() {
+        return getIntProperty("data.cleaner.dedup.max.memory.records", 4_000_000);
+    }
+    
+    public static int getDedupSpillPartitions() {
+        return getIntProperty("data.cleaner.dedup.spill.partitions", 64);
+    }
+    
+    /**
+     * Price outlier bounds: iqr (Tukey fences) or mad (median absolute deviation)
+     */
+    public static String getOutlierMethod() {
+        return getProperty("data.cleaner.outlier.method", "iqr");
+    }
+    
+    /**
+     * Width of the outlier bounds, in IQRs beyond the quartiles or scaled MADs from the median
+     */
+    public static double getOutlierFactor() {
+        return getDoubleProperty("data.cleaner.outlier.factor", 3.0);
+    }
+    
+    /**
+     * Workload profile of generated datasets: uniform, production, skewed or dirty
+     */
+    public static String getSyntheticProfile() {
+        return getProperty("data.synthetic.profile", "uniform");
+    }
+    
+    /**
+     * Size of generated datasets, e.g. "1K", "10M" or "250000"
+     */
+    public static String getSyntheticRows() {
+        return getProperty("data.synthetic.rows", "1K");
+    }
+    
+    /**
+     * CSV of historical rates to TND; the bundled annual averages are used when it is absent
+     */
+    public static String getExchangeRatesPath() {
+        return getProperty("currency.rates.path", "data/datasets/raw/exchange_rates_tnd.csv");
+    }
+    
+    /**
+     * True when transform cache keys hash the source content, false for size and mtime only
+     */
+    public static boolean isTransformCacheContentKeyed() {
+        return !"metadata".equalsIgnoreCase(getProperty("data.cache.key.mode", "content").strip());
+    }
+    
+    /**
+     * M49 area codes kept by the FAOSTAT bulk mode (788 = Tunisia)
+     */
+    public static Set<String> getFaostatAreaCodes() {
+        return getCodeSet("faostat.area.codes", "788");
+    }
+    
+    /**
+     * CPC item codes kept by the FAOSTAT bulk mode
+     */
+    public static Set<String> getFaostatItemCodes() {
+        return getCodeSet("faostat.item.codes", "01314,2167,01450,01323,01329");
+    }
+    
+    /**
+     * Seed of the FAOSTAT monthly expansion, so transformed data is reproducible
+     */
+    public static long getFaostatExpansionSeed() {
+        try {
+            return Long.parseLong(getProperty("faostat.expansion.seed", "42"));
+        } catch (NumberFormatException e) {
+            return 42L;
+        }
+    }
+    
+    private static Set<String> getCodeSet(String key, String defaultValue) {
+        Set<String> codes = new LinkedHashSet<>();
+        for (String code : getProperty(key, defaultValue).split(",")) {
+            if (!code.isBlank()) {
+                codes.add(code.strip());
+            }
+        }
+        return codes;
+    }
+    
     public static String getLLMProvider() {
         return getProperty("llm.provider", "ollama");
     }
@@ -1,5 +1,7 @@
 package tn.isg.economics.util;
 
+import java.time.LocalDate;
+
 /**
  * Utility class for currency conversion between USD and Tunisian Dinar (TND)
  */
@@ -22,6 +24,20 @@ public class CurrencyUtil {
         return tndAmount / USD_TO_TND_RATE;
     }
     
+    /**
+     * Convert USD to Tunisian Dinar at the historical rate of the given date
+     */
+    public static double convertUsdToTnd(double usdAmount, LocalDate date) {
+        return ExchangeRateTable.usdToTnd().convert(usdAmount, date);
+    }
+    
+    /**
+     * Convert Tunisian Dinar to USD at the historical rate of the given date
+     */
+    public static double convertTndToUsd(double tndAmount, LocalDate date) {
+        return tndAmount / ExchangeRateTable.usdToTnd().rate(date);
+    }
+    
     /**
      * Format amount in TND with currency symbol
      */
@@ -51,6 +67,13 @@ public class CurrencyUtil {
         return USD_TO_TND_RATE;
     }
     
+    /**
+     * Get the historical USD to TND rate of a date
+     */
+    public static double getExchangeRate(LocalDate date) {
+        return ExchangeRateTable.usdToTnd().rate(date);
+    }
+    
     /**
      * Get currency symbol
      */
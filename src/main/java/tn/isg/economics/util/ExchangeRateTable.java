@@ -0,0 +1,188 @@
+package tn.isg.economics.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Historical rates from one foreign currency to Tunisian Dinar.
+ *
+ * Rates are read from a "date,currency,rate" CSV whose dates may be days
+ * (yyyy-MM-dd), months (yyyy-MM) or years (yyyy); each rate holds until the
+ * next entry. The table expands them into one double per day, indexed by the
+ * offset from the first entry's epoch day, so a lookup is a subtraction and
+ * an array read. Dates outside the table use the nearest known rate.
+ */
+public final class ExchangeRateTable {
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateTable.class);
+    private static final String BUNDLED_RATES = "/data/exchange_rates_tnd.csv";
+    private static final Map<String, ExchangeRateTable> DEFAULTS = new ConcurrentHashMap<>();
+
+    private final String currency;
+    private final int firstEpochDay;
+    private final double[] rates;
+
+    private ExchangeRateTable(String currency, int firstEpochDay, double[] rates) {
+        this.currency = currency;
+        this.firstEpochDay = firstEpochDay;
+        this.rates = rates;
+    }
+
+    /**
+     * USD to TND table from the configured rates file, or the bundled annual averages
+     */
+    public static ExchangeRateTable usdToTnd() {
+        return forCurrency("USD");
+    }
+
+    /**
+     * EUR to TND table from the configured rates file, or the bundled annual averages
+     */
+    public static ExchangeRateTable eurToTnd() {
+        return forCurrency("EUR");
+    }
+
+    /**
+     * Shared table for a currency, loaded once from currency.rates.path when that
+     * file exists and from the bundled rates otherwise
+     */
+    public static ExchangeRateTable forCurrency(String currency) {
+        return DEFAULTS.computeIfAbsent(currency.toUpperCase(), ExchangeRateTable::loadDefault);
+    }
+
+    /**
+     * Read the rates of one currency from a "date,currency,rate" CSV
+     */
+    public static ExchangeRateTable load(Reader reader, String currency) throws IOException {
+        TreeMap<LocalDate, Double> entries = new TreeMap<>();
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#") || line.regionMatches(true, 0, "date,", 0, 5)) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 3 || !fields[1].strip().equalsIgnoreCase(currency)) {
+                continue;
+            }
+            try {
+                entries.put(parseDate(fields[0].strip()), Double.parseDouble(fields[2].strip()));
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid exchange rate row: " + line, e);
+            }
+        }
+        if (entries.isEmpty()) {
+            throw new IOException("No exchange rates for " + currency);
+        }
+
+        int first = (int) entries.firstKey().toEpochDay();
+        double[] daily = new double[(int) entries.lastKey().toEpochDay() - first + 1];
+        LocalDate[] dates = entries.keySet().toArray(new LocalDate[0]);
+        for (int i = 0; i < dates.length; i++) {
+            int from = (int) dates[i].toEpochDay() - first;
+            int to = i + 1 < dates.length ? (int) dates[i + 1].toEpochDay() - first : daily.length;
+            Arrays.fill(daily, from, to, entries.get(dates[i]));
+        }
+        return new ExchangeRateTable(currency.toUpperCase(), first, daily);
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * TND per unit of the currency on the given epoch day
+     */
+    public double rate(int epochDay) {
+        return rates[Math.clamp((long) epochDay - firstEpochDay, 0, rates.length - 1)];
+    }
+
+    public double rate(LocalDate date) {
+        return rate((int) date.toEpochDay());
+    }
+
+    /**
+     * Most recent rate in the table
+     */
+    public double latestRate() {
+        return rates[rates.length - 1];
+    }
+
+    public double convert(double amount, LocalDate date) {
+        return amount * rate(date);
+    }
+
+    /**
+     * Convert amounts[i] at epochDays[i] into a new array of TND amounts
+     */
+    public double[] convert(double[] amounts, int[] epochDays) {
+        double[] out = new double[amounts.length];
+        convert(amounts, epochDays, out);
+        return out;
+    }
+
+    /**
+     * Convert amounts[i] at epochDays[i] into out[i]; out may be amounts itself
+     */
+    public void convert(double[] amounts, int[] epochDays, double[] out) {
+        if (epochDays.length != amounts.length || out.length < amounts.length) {
+            throw new IllegalArgumentException("Amounts, days and output must have matching lengths");
+        }
+        int last = rates.length - 1;
+        for (int i = 0; i < amounts.length; i++) {
+            out[i] = amounts[i] * rates[Math.clamp((long) epochDays[i] - firstEpochDay, 0, last)];
+        }
+    }
+
+    /**
+     * Short identity of the rates, for keying cached conversions
+     */
+    public String fingerprint() {
+        return currency + "@" + firstEpochDay + "+" + rates.length + "#" + Integer.toHexString(Arrays.hashCode(rates));
+    }
+
+    private static LocalDate parseDate(String value) {
+        return switch (value.length()) {
+            case 4 -> LocalDate.of(Integer.parseInt(value), 1, 1);
+            case 7 -> LocalDate.parse(value + "-01");
+            default -> LocalDate.parse(value);
+        };
+    }
+
+    private static ExchangeRateTable loadDefault(String currency) {
+        Path configured = Path.of(ConfigLoader.getExchangeRatesPath());
+        if (Files.isRegularFile(configured)) {
+            try (Reader reader = Files.newBufferedReader(configured, StandardCharsets.UTF_8)) {
+                ExchangeRateTable table = load(reader, currency);
+                log.info("Loaded {} to TND rates from {}", currency, configured);
+                return table;
+            } catch (IOException e) {
+                log.warn("Ignoring exchange rates in {}: {}", configured, e.getMessage());
+            }
+        }
+
+        try (InputStream in = ExchangeRateTable.class.getResourceAsStream(BUNDLED_RATES)) {
+            if (in == null) {
+                throw new IOException("Missing bundled exchange rates " + BUNDLED_RATES);
+            }
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8), currency);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
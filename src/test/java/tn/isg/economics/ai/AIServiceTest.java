@@ -9,8 +9,12 @@ import tn.isg.economics.model.ProductType;
 import tn.isg.economics.model.MarketIndicator;
 import tn.isg.economics.model.PricePrediction;
 import tn.isg.economics.exception.ModelException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class AIServiceTest {
     
@@ -176,4 +180,95 @@ public class AIServiceTest {
             fail("Model loading should not throw exception: " + e.getMessage());
         }
     }
+    
+    @Test
+    @DisplayName("Test ONNX batch inference with the bundled linear model")
+    void testONNXModelInference() throws Exception {
+        // predicted_price = 1.02 * price_per_ton + 10
+        Path model = Path.of(getClass().getResource("/models/onnx/linear_price.onnx").toURI());
+        ONNXRuntimeService service = new ONNXRuntimeService(model, 1, 1);
+        service.loadModel();
+        assertTrue(service.isModelBacked(), "Bundled model should load");
+        
+        List<ExportData> inputs = IntStream.range(0, 1_000)
+            .mapToObj(i -> new ExportData(LocalDate.of(2023, 1 + i % 12, 1), ProductType.values()[i % ProductType.values().length],
+                1000.0 + i, 100.0, "France", MarketIndicator.STABLE))
+            .toList();
+        List<PricePrediction> predictions = service.predictBatch(inputs);
+        assertEquals(inputs.size(), predictions.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(1.02 * (1000.0 + i) + 10, predictions.get(i).predictedPrice(), 0.01);
+            assertEquals(inputs.get(i).productType(), predictions.get(i).productType());
+        }
+        
+        // The session is shared; concurrent single predictions must agree with the batch
+        IntStream.range(0, inputs.size()).parallel().forEach(i ->
+            assertEquals(predictions.get(i).predictedPrice(), service.predictPrice(inputs.get(i)).predictedPrice()));
+        
+        service.unloadModel();
+        assertFalse(service.isModelBacked());
+        assertThrows(IllegalStateException.class, () -> service.predictPrice(inputs.get(0)));
+    }
+    
+    @Test
+    @DisplayName("Test price window running statistics across wrap-around")
+    void testPriceWindow() {
+        PriceWindow window = new PriceWindow(100);
+        for (int i = 0; i < 1_050; i++) {
+            window.add(1e6 + i % 37 + i * 0.5);
+        }
+        double[] recent = IntStream.range(950, 1_050).mapToDouble(i -> 1e6 + i % 37 + i * 0.5).toArray();
+        double mean = Arrays.stream(recent).average().orElseThrow();
+        double variance = Arrays.stream(recent).map(p -> (p - mean) * (p - mean)).average().orElseThrow();
+        
+        assertEquals(100, window.size());
+        assertEquals(recent[0], window.oldest());
+        assertEquals(recent[99], window.newest());
+        assertEquals(mean, window.mean(), 1e-6);
+        assertEquals(variance, window.variance(), 1e-6);
+        
+        TimeSeriesPredictionService service = new TimeSeriesPredictionService(100, 42);
+        assertDoesNotThrow(service::loadModel);
+        List<ExportData> history = IntStream.range(0, 200_000)
+            .mapToObj(i -> new ExportData(LocalDate.of(2023, 1 + i % 12, 1), ProductType.OLIVE_OIL,
+                3000.0 + i % 500, 100.0, "France", MarketIndicator.STABLE))
+            .toList();
+        List<PricePrediction> predictions = service.predictBatch(history);
+        assertEquals(history.size(), predictions.size());
+        assertTrue(predictions.stream().allMatch(p -> p.predictedPrice() > 0));
+    }
+    
+    @Test
+    @DisplayName("Test parallel time series batches are deterministic and thread-safe")
+    void testParallelTimeSeriesBatch() throws Exception {
+        List<ExportData> inputs = IntStream.range(0, 50_000)
+            .mapToObj(i -> new ExportData(LocalDate.of(2020 + i % 4, 1 + i % 12, 1),
+                ProductType.values()[i % ProductType.values().length], 1000.0 + i % 900, 50.0,
+                "France", MarketIndicator.STABLE))
+            .toList();
+        
+        TimeSeriesPredictionService sequential = new TimeSeriesPredictionService(1_000, 7);
+        TimeSeriesPredictionService parallel = new TimeSeriesPredictionService(1_000, 7);
+        sequential.loadModel();
+        parallel.loadModel();
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool wide = new ForkJoinPool(8);
+        try {
+            assertEquals(sequential.predictBatch(inputs, single), parallel.predictBatch(inputs, wide),
+                "Forecasts must not depend on the pool");
+            
+            // Writers and readers from several threads at once
+            wide.submit(() -> IntStream.range(0, inputs.size()).parallel().forEach(i -> {
+                if (i % 10 == 0) {
+                    parallel.observe(inputs.get(i));
+                }
+                assertTrue(parallel.predictPrice(inputs.get(i)).predictedPrice() > 0);
+            })).get();
+        } finally {
+            single.shutdown();
+            wide.shutdown();
+        }
+        assertEquals(parallel.predictPrice(inputs.get(0)), parallel.predictPrice(inputs.get(0)),
+            "Repeated predictions for a record should be identical once writers are done");
+    }
 }
@@ -3,10 +3,35 @@ package tn.isg.economics.data;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
+import tn.isg.economics.dashboard.service.ExportStatisticsAccumulator;
+import tn.isg.economics.data.cleaner.DataCleaner;
+import tn.isg.economics.data.generator.SyntheticDataGenerator;
+import tn.isg.economics.data.generator.WorkloadProfile;
+import tn.isg.economics.data.loader.CsvSources;
 import tn.isg.economics.data.loader.DataLoader;
+import tn.isg.economics.data.loader.ExportRecordParser;
+import tn.isg.economics.data.loader.IncrementalCsvIngestor;
+import tn.isg.economics.data.loader.ParallelCsvLoader;
+import tn.isg.economics.data.loader.RejectedRows;
+import tn.isg.economics.data.loader.RowStatus;
 import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ProductType;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 public class DataLoaderTest {
     
@@ -58,4 +83,211 @@ public class DataLoaderTest {
         assertNotNull(data, "Should return empty list, not null");
         assertTrue(data.isEmpty(), "Should return empty list for non-existent file");
     }
+    
+    @Test
+    @DisplayName("Test parallel CSV loading matches sequential loading")
+    void testParallelLoadingMatchesSequential(@TempDir Path tempDir) throws IOException {
+        Path csv = writeSampleCsv(tempDir, 200);
+        
+        Path rejectFile = tempDir.resolve("exports.rejects.csv");
+        
+        List<ExportData> sequential = dataLoader.loadExportDataFromCSV(csv.toString(), new RejectedRows(rejectFile));
+        // Tiny chunks force many newline-aligned splits
+        ParallelCsvLoader parallelLoader = new ParallelCsvLoader(new ForkJoinPool(4), 97);
+        Path parallelRejectFile = tempDir.resolve("parallel.rejects.csv");
+        List<ExportData> parallel = dataLoader.loadExportDataParallel(csv.toString(), parallelLoader,
+                new RejectedRows(parallelRejectFile));
+        
+        assertEquals(199, sequential.size(), "One malformed row should be skipped");
+        assertEquals(1, dataLoader.getLastRejectedRows().getCount(RowStatus.INVALID_DATE));
+        assertEquals(List.of("line,reason,row", "58,INVALID_DATE,\"2023-13-45,OLIVE_OIL,100,10,France,STABLE\""),
+                Files.readAllLines(rejectFile), "Rejected row should be written to the side file");
+        assertEquals(Files.readAllLines(rejectFile), Files.readAllLines(parallelRejectFile),
+                "Parallel rejects should carry the same row numbers");
+        assertEquals(sequential, parallel, "Parallel load should keep file order and values");
+        assertNotNull(dataLoader.getLastIngestReport(), "Parallel load should produce a report");
+        assertEquals(199, dataLoader.getLastIngestReport().rows());
+        assertEquals(1, dataLoader.getLastIngestReport().skippedRows());
+        
+        Path quotedFile = tempDir.resolve("quoted.rejects.csv");
+        try (RejectedRows quoted = new RejectedRows(quotedFile)) {
+            quoted.reject(RowStatus.UNKNOWN_PRODUCT, -1, "2023-01-15,\"Dates \"\"Deglet\"\"\",10");
+        }
+        assertEquals(",UNKNOWN_PRODUCT,\"2023-01-15,\"\"Dates \"\"\"\"Deglet\"\"\"\"\"\",10\"",
+                Files.readAllLines(quotedFile).get(1), "Quotes in the row should be doubled");
+        assertNotEquals(DataLoader.rejectFileFor("a/exports.csv"), DataLoader.rejectFileFor("b/exports.csv"),
+                "Same-named sources should get different side files");
+    }
+    
+    @Test
+    @DisplayName("Test streaming CSV loading through the cleaner")
+    void testStreamExportData(@TempDir Path tempDir) throws IOException {
+        Path csv = writeSampleCsv(tempDir, 50);
+        List<ExportData> loaded = dataLoader.loadExportDataFromCSV(csv.toString());
+        
+        try (Stream<ExportData> stream = new DataCleaner().cleanExportStream(dataLoader.streamExportData(csv))) {
+            List<ExportData> streamed = stream.toList();
+            assertEquals(loaded, streamed, "Streaming should yield the same records in order");
+        }
+        
+        ExportStatisticsAccumulator stats = ExportStatisticsAccumulator.of(dataLoader.streamExportData(csv));
+        assertEquals(loaded.size(), stats.getCount());
+        assertEquals(loaded.size(), stats.getCountryDistribution().values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(loaded.stream().mapToDouble(ExportData::volume).average().orElse(0),
+                stats.getAverageVolume(), 1e-9);
+    }
+    
+    @Test
+    @DisplayName("Test specialized field parsers agree with the JDK")
+    void testExportRecordParserFields() {
+        for (String date : List.of("2000-01-01", "2024-02-29", "1999-12-31", "2023-07-15")) {
+            char[] chars = date.toCharArray();
+            assertEquals(LocalDate.parse(date).toEpochDay(), ExportRecordParser.parseEpochDay(chars, 0, chars.length));
+        }
+        for (String date : List.of("2023-02-29", "2023-13-01", "2023-1-01", "20x3-01-01")) {
+            char[] chars = date.toCharArray();
+            assertEquals(ExportRecordParser.INVALID_DATE, ExportRecordParser.parseEpochDay(chars, 0, chars.length), date);
+        }
+        for (String number : List.of("3683,22", "96.31", "0", "-12.5", "1e3", "123456789012345678.9", ".5")) {
+            char[] chars = number.toCharArray();
+            assertEquals(Double.parseDouble(number.replace(',', '.')),
+                    ExportRecordParser.parseDecimal(chars, 0, chars.length), number);
+        }
+        for (String number : List.of("", "abc", "1,2,3", "-")) {
+            char[] chars = number.toCharArray();
+            assertTrue(Double.isNaN(ExportRecordParser.parseDecimal(chars, 0, chars.length)), number);
+        }
+        char[] product = "citrus_fruits".toCharArray();
+        assertEquals(ProductType.CITRUS_FRUITS, ExportRecordParser.lookupProductType(product, 0, product.length));
+    }
+    
+    @Test
+    @DisplayName("Test incremental ingest delivers only appended rows across restarts")
+    void testIncrementalIngest(@TempDir Path tempDir) throws IOException {
+        Path raw = Files.createDirectory(tempDir.resolve("raw"));
+        Path checkpoint = tempDir.resolve("offsets.properties");
+        Path file = raw.resolve("exports.csv");
+        List<ExportData> received = new ArrayList<>();
+        
+        Files.writeString(file, "date,product_type,price_per_ton,volume,destination_country,market_indicator\n"
+                + "2024-01-01,DATES,2000,10,France,STABLE\n");
+        try (IncrementalCsvIngestor ingestor = new IncrementalCsvIngestor(raw, checkpoint, received::addAll)) {
+            assertEquals(1, ingestor.pollAll());
+            Files.writeString(file, "2024-01-02,WHEAT,800,20,Italy,RISING\n2024-01-03,DAT", StandardOpenOption.APPEND);
+            assertEquals(1, ingestor.ingest(file), "Partial trailing line should wait for its newline");
+        }
+        
+        Files.writeString(file, "ES,2100,30,Spain,VOLATILE\n", StandardOpenOption.APPEND);
+        try (IncrementalCsvIngestor restarted = new IncrementalCsvIngestor(raw, checkpoint, received::addAll)) {
+            assertEquals(1, restarted.pollAll(), "Restart should resume from the checkpointed offset");
+            assertEquals(Files.size(file), restarted.getOffset(file));
+        }
+        assertEquals(List.of("France", "Italy", "Spain"),
+                received.stream().map(ExportData::destinationCountry).toList());
+    }
+    
+    @Test
+    @DisplayName("Test loading gzip files and zip archive entries")
+    void testCompressedSources(@TempDir Path tempDir) throws IOException {
+        Path csv = writeSampleCsv(tempDir, 40);
+        List<ExportData> plain = dataLoader.loadExportDataFromCSV(csv.toString());
+        
+        Path gzip = tempDir.resolve("archived.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            Files.copy(csv, out);
+        }
+        Path zip = tempDir.resolve("bundle.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("data\\datasets\\exports.csv"));
+            Files.copy(csv, out);
+            out.closeEntry();
+        }
+        
+        assertEquals(plain, dataLoader.loadExportDataFromCSV(gzip.toString()), "Gzip should be detected by magic number");
+        assertEquals(plain, dataLoader.loadExportDataParallel(gzip.toString()));
+        assertEquals(plain, dataLoader.loadExportDataFromCSV(zip + "!data/datasets/exports.csv"),
+                "Zip entries should match regardless of separator style");
+        try (Stream<ExportData> streamed = dataLoader.streamExportData(Path.of(zip + "!data\\datasets\\exports.csv"))) {
+            assertEquals(plain, streamed.toList());
+        }
+        NoSuchFileException missing = assertThrows(NoSuchFileException.class,
+                () -> CsvSources.openStream(zip + "!exports.csv"));
+        assertTrue(missing.getMessage().contains("data\\datasets\\exports.csv"),
+                "Missing entries should list the archive's CSV entries");
+    }
+    
+    @Test
+    @DisplayName("Test concurrent directory ingest merges files by date")
+    void testLoadDirectory(@TempDir Path tempDir) throws IOException {
+        String header = "date,product_type,price_per_ton,volume,destination_country,market_indicator\n";
+        Files.writeString(tempDir.resolve("2024-02.csv"), header
+                + "2024-02-20,DATES,2000,10,France,STABLE\n2024-02-01,WHEAT,800,20,Italy,RISING\n");
+        Files.writeString(tempDir.resolve("2024-01.csv"), header
+                + "2024-01-05,CITRUS_FRUITS,1200,30,Spain,VOLATILE\n2024-02-01,DATES,2100,15,Libya,STABLE\n");
+        Files.writeString(tempDir.resolve("notes.txt"), "not a csv");
+        
+        List<ExportData> loaded = dataLoader.loadDirectory(tempDir, "*.csv");
+        
+        assertEquals(List.of("Spain", "Libya", "Italy", "France"),
+                loaded.stream().map(ExportData::destinationCountry).toList(),
+                "Rows should be ordered by date, ties by file name");
+        assertEquals(2, dataLoader.getLastDirectoryReports().size());
+        assertEquals(2, dataLoader.getLastDirectoryReports().get(0).rows());
+        assertEquals(4, dataLoader.getLastIngestReport().rows());
+    }
+    
+    static Path writeSampleCsv(Path dir, int rows) throws IOException {
+        StringBuilder csv = new StringBuilder("date,product_type,price_per_ton,volume,destination_country,market_indicator\r\n");
+        String[] products = {"OLIVE_OIL", "dates", "CITRUS_FRUITS", "WHEAT"};
+        for (int i = 0; i < rows; i++) {
+            if (i == 57) {
+                csv.append("2023-13-45,OLIVE_OIL,100,10,France,STABLE\r\n");
+                continue;
+            }
+            csv.append(String.format("2023-%02d-%02d,%s,\"%d,%02d\",%d.5,%s,%s\r\n",
+                    1 + i % 12, 1 + i % 28, products[i % 4], 1000 + i, i % 100, 10 + i,
+                    i % 2 == 0 ? "France" : "\"United Kingdom\"", i % 3 == 0 ? "rising" : "STABLE"));
+        }
+        Path file = dir.resolve("exports.csv");
+        Files.writeString(file, csv.toString());
+        return file;
+    }
+    
+    @Test
+    @DisplayName("Test streamed synthetic CSV is deterministic and loadable")
+    void testStreamedSyntheticCsv(@TempDir Path tempDir) throws IOException {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(7);
+        Path parallel = tempDir.resolve("parallel.csv");
+        Path sequential = tempDir.resolve("sequential.csv");
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        LocalDate end = LocalDate.of(2022, 12, 31);
+        
+        generator.generateExportCSV(parallel, 150_000, start, end, new ForkJoinPool(4));
+        generator.generateExportCSV(sequential, 150_000, start, end, new ForkJoinPool(1));
+        
+        assertEquals(-1, Files.mismatch(parallel, sequential), "Output should not depend on the thread count");
+        RejectedRows rejects = new RejectedRows();
+        assertEquals(150_000, dataLoader.loadExportDataFromCSV(parallel.toString(), rejects).size());
+        assertEquals(0, rejects.getTotal());
+    }
+    
+    @Test
+    @DisplayName("Test workload profile shapes generated data")
+    void testWorkloadProfile(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("production.csv");
+        new SyntheticDataGenerator(7).generateExportCSV(file, WorkloadProfile.named("production", "20K"),
+                LocalDate.of(2020, 1, 1), LocalDate.of(2023, 12, 31));
+        
+        RejectedRows rejects = new RejectedRows();
+        List<ExportData> rows = dataLoader.loadExportDataFromCSV(file.toString(), rejects);
+        
+        assertEquals(20_000, rows.size() + rejects.getTotal(), "Every generated row should be loaded or rejected");
+        assertTrue(rejects.getTotal() > 0, "Production profile should contain dirty rows");
+        for (int i = 1; i < rows.size(); i++) {
+            assertFalse(rows.get(i).date().isBefore(rows.get(i - 1).date()), "Rows should be in date order");
+        }
+        long oliveOil = rows.stream().filter(r -> r.productType() == ProductType.OLIVE_OIL).count();
+        long wheat = rows.stream().filter(r -> r.productType() == ProductType.WHEAT).count();
+        assertTrue(oliveOil > 3 * wheat, "Products should follow the Zipf skew");
+    }
 }
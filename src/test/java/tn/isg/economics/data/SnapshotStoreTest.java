@@ -0,0 +1,132 @@
+package tn.isg.economics.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import tn.isg.economics.ai.LLMReportService;
+import tn.isg.economics.ai.TimeSeriesPredictionService;
+import tn.isg.economics.data.generator.SyntheticDataGenerator;
+import tn.isg.economics.data.snapshot.SnapshotStore;
+import tn.isg.economics.data.snapshot.TransformCache;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.PredictionStatus;
+import tn.isg.economics.model.PricePrediction;
+import tn.isg.economics.model.ProductType;
+import tn.isg.economics.service.EconomicIntelligenceService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SnapshotStoreTest {
+
+    private final SnapshotStore store = new SnapshotStore();
+
+    @Test
+    @DisplayName("Test export snapshot round trip")
+    void testExportSnapshotRoundTrip(@TempDir Path tempDir) throws IOException {
+        List<ExportData> exports = new SyntheticDataGenerator().generateExportData(500,
+                LocalDate.of(2020, 1, 1), LocalDate.of(2023, 12, 31));
+        Path snapshot = tempDir.resolve("exports.snap");
+
+        store.writeExports(exports, snapshot);
+
+        assertEquals(exports, store.readExports(snapshot).asList(), "Snapshot should restore identical records");
+    }
+
+    @Test
+    @DisplayName("Test prediction snapshot round trip")
+    void testPredictionSnapshotRoundTrip(@TempDir Path tempDir) throws IOException {
+        List<PricePrediction> predictions = List.of(
+            new PricePrediction(LocalDate.of(2024, 5, 1), ProductType.DATES, 2500.5, 0.85, "DJL", PredictionStatus.COMPLETED),
+            new PricePrediction(LocalDate.of(2024, 6, 1), ProductType.WHEAT, 800.0, 0.4, "ONNX", PredictionStatus.LOW_CONFIDENCE)
+        );
+        Path snapshot = tempDir.resolve("predictions.snap");
+
+        store.writePredictions(predictions, snapshot);
+
+        assertEquals(predictions, store.readPredictions(snapshot));
+    }
+
+    @Test
+    @DisplayName("Test saved prediction history keeps only the newest records")
+    void testPredictionHistoryRetention(@TempDir Path tempDir) throws IOException {
+        EconomicIntelligenceService service = EconomicIntelligenceService.builder()
+            .predictionModel(new TimeSeriesPredictionService())
+            .reportGenerator(new LLMReportService())
+            .build();
+        List<PricePrediction> predictions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            predictions.add(new PricePrediction(LocalDate.of(2024, 1, 1).plusDays(i), ProductType.DATES,
+                2500 + i, 0.8, "TimeSeries", PredictionStatus.COMPLETED));
+        }
+        Path snapshot = tempDir.resolve("history.snap");
+        service.recordPredictions(predictions);
+        service.saveHistorySnapshot(snapshot, 4);
+
+        assertEquals(predictions.subList(6, 10), store.readPredictions(snapshot));
+        assertEquals(predictions.subList(6, 10), service.getPredictionHistory());
+
+        EconomicIntelligenceService restarted = EconomicIntelligenceService.builder()
+            .predictionModel(new TimeSeriesPredictionService())
+            .reportGenerator(new LLMReportService())
+            .build();
+        assertEquals(4, restarted.restoreHistory(snapshot));
+        assertEquals(0, restarted.restoreHistory(tempDir.resolve("missing.snap")));
+    }
+
+    @Test
+    @DisplayName("Test corrupt snapshot falls back to ingest")
+    void testCorruptSnapshotFallsBackToIngest(@TempDir Path tempDir) throws IOException {
+        Path snapshot = tempDir.resolve("exports.snap");
+        Files.write(snapshot, new byte[]{1, 2, 3});
+        List<ExportData> ingested = new SyntheticDataGenerator().generateExportData(10,
+                LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31));
+
+        List<ExportData> loaded = store.loadOrIngest(snapshot, null, () -> ingested);
+
+        assertEquals(ingested, loaded);
+        assertEquals(ingested, store.readExports(snapshot).asList(), "Snapshot should be rewritten after ingest");
+    }
+
+    @Test
+    @DisplayName("Test transform cache reuses results until the source changes")
+    void testTransformCacheInvalidatesOnSourceChange(@TempDir Path tempDir) throws IOException {
+        Path source = tempDir.resolve("source.csv");
+        Files.writeString(source, "Year,Value\n2020,1\n");
+        TransformCache cache = new TransformCache(tempDir.resolve("cache"), true);
+        List<ExportData> transformed = new SyntheticDataGenerator().generateExportData(10,
+                LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31));
+        AtomicInteger computations = new AtomicInteger();
+
+        List<ExportData> first = cache.getOrCompute("exports", source, "seed=1",
+                () -> { computations.incrementAndGet(); return transformed; });
+        List<ExportData> second = cache.getOrCompute("exports", source, "seed=1",
+                () -> { computations.incrementAndGet(); return transformed; });
+        assertEquals(1, computations.get(), "Unchanged source and settings should hit the cache");
+        assertEquals(first, second);
+
+        cache.getOrCompute("exports", source, "seed=2", () -> { computations.incrementAndGet(); return transformed; });
+        Files.writeString(source, "Year,Value\n2021,2\n");
+        cache.getOrCompute("exports", source, "seed=2", () -> { computations.incrementAndGet(); return transformed; });
+        assertEquals(3, computations.get(), "Changed settings or content should recompute");
+
+        try (var entries = Files.list(tempDir.resolve("cache"))) {
+            assertEquals(1, entries.count(), "Stale entries should be removed");
+        }
+
+        // Another source under the same name keeps its own entry
+        Path other = tempDir.resolve("other.csv");
+        Files.writeString(other, "Year,Value\n2022,3\n");
+        cache.getOrCompute("exports", other, "seed=2", () -> { computations.incrementAndGet(); return transformed; });
+        cache.getOrCompute("exports", source, "seed=2", () -> { computations.incrementAndGet(); return transformed; });
+        assertEquals(4, computations.get(), "Entries of other sources should not be evicted");
+        try (var entries = Files.list(tempDir.resolve("cache"))) {
+            assertEquals(2, entries.count());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package tn.isg.economics.data.cleaner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import tn.isg.economics.data.generator.SyntheticDataGenerator;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.ProductType;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class DataCleanerTest {
+    
+    @Test
+    @DisplayName("Test rule-based cleaning counts rejections per rule")
+    void testRuleBasedCleaning() {
+        Clock clock = Clock.fixed(LocalDate.of(2024, 6, 30).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        DataCleaner cleaner = new DataCleaner(CleaningRule.defaults(), clock);
+        List<ExportData> raw = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            LocalDate date = LocalDate.of(2024, 1, 1).plusDays(i % 365);
+            double price = i % 100 == 0 ? 0 : 1000 + i;
+            raw.add(i % 1000 == 1 ? null
+                    : new ExportData(date, ProductType.DATES, price, 10, "France", MarketIndicator.STABLE));
+        }
+        
+        List<ExportData> cleaned = cleaner.cleanExportData(raw);
+        
+        List<ExportData> expected = raw.stream()
+                .filter(d -> d != null && d.pricePerTon() > 0 && !d.date().isAfter(LocalDate.of(2024, 6, 30)))
+                .toList();
+        assertEquals(expected, cleaned, "Parallel cleaning should keep valid records in input order");
+        var rejected = cleaner.getLastReport().rejectedByRule();
+        assertEquals(30L, rejected.get("null"));
+        assertEquals(300L, rejected.get("non-positive-price"));
+        assertEquals(raw.size() - expected.size() - 330L, rejected.get("future-date"));
+        assertEquals(cleaned, cleaner.cleanAndNormalize(raw).features().stream()
+                .map(NormalizedFeatures::source).toList());
+    }
+    
+    @Test
+    @DisplayName("Test per-product normalization and fitted scaler")
+    void testNormalizeData() {
+        List<ExportData> data = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            ProductType product = i % 2 == 0 ? ProductType.OLIVE_OIL : ProductType.WHEAT;
+            double base = product == ProductType.OLIVE_OIL ? 1e9 : 500;
+            data.add(new ExportData(LocalDate.of(2023, 1, 1), product, base + i % 7, 10 + i % 3,
+                    "France", MarketIndicator.STABLE));
+        }
+        
+        NormalizationResult result = new DataCleaner().normalizeData(data);
+        
+        FeatureScaler.FeatureStatistics olive = result.scaler().price(ProductType.OLIVE_OIL);
+        double expectedMean = data.stream().filter(d -> d.productType() == ProductType.OLIVE_OIL)
+                .mapToDouble(d -> d.pricePerTon() - 1e9).average().orElseThrow() + 1e9;
+        assertEquals(expectedMean, olive.mean(), 1e-6, "Welford mean should stay exact at large offsets");
+        assertEquals(2.0, olive.stdDev(), 0.01);
+        assertEquals(1e9, olive.min());
+        assertEquals(1e9 + 6, olive.max());
+        
+        NormalizedFeatures first = result.features().get(0);
+        assertEquals(data.get(0), first.source());
+        assertEquals(0.0, first.priceMinMax(), 1e-12);
+        assertEquals((data.get(0).pricePerTon() - olive.mean()) / olive.stdDev(), first.priceZScore(), 1e-9);
+        assertEquals(result.features().get(1), result.scaler().transform(data.get(1)),
+                "Stored scaler should reproduce the features");
+        assertEquals(0.0, result.scaler().price(ProductType.DATES).zScore(123), "Unseen products normalize to 0");
+    }
+    
+    @Test
+    @DisplayName("Test deduplication in memory and with disk spill")
+    void testDeduplication(@TempDir Path tempDir) {
+        List<ExportData> unique = new SyntheticDataGenerator().generateExportData(5_000,
+                LocalDate.of(2020, 1, 1), LocalDate.of(2023, 12, 31));
+        List<ExportData> redelivered = new ArrayList<>(unique);
+        redelivered.addAll(unique.subList(1_000, 3_000));
+        redelivered.add(6_500, unique.get(4_999));
+        
+        Deduplicator inMemory = new Deduplicator(1_000_000, 8, tempDir);
+        assertEquals(unique, inMemory.deduplicate(redelivered));
+        assertFalse(inMemory.wasLastSpilled());
+        
+        Deduplicator spilling = new Deduplicator(500, 8, tempDir);
+        assertEquals(unique, spilling.deduplicate(redelivered), "Spilled dedup should keep first occurrences in order");
+        assertTrue(spilling.wasLastSpilled());
+        assertEquals(2_001, spilling.getLastDuplicates());
+        assertTrue(spilling.getLastSpillPartitions() > 8, "Partitions over the memory limit should be split");
+        
+        // One first-level partition holding everything is split by the volume spilled
+        Deduplicator onePartition = new Deduplicator(500, 1, tempDir);
+        assertEquals(unique, onePartition.deduplicate(redelivered));
+        assertEquals(2_001, onePartition.getLastDuplicates());
+        assertTrue(onePartition.getLastSpillPartitions() >= 10);
+        assertEquals(0, tempDir.toFile().list().length, "Spill files should be deleted");
+        
+        List<ExportData> streamed = new ArrayList<>();
+        assertEquals(unique.size(), spilling.deduplicate(redelivered::stream, streamed::add));
+        assertEquals(unique, streamed);
+        assertThrows(IllegalArgumentException.class, () -> new Deduplicator(0, 8, tempDir));
+    }
+    
+    @Test
+    @DisplayName("Test quantile sketches merge and filter price outliers per product")
+    void testOutlierFilter() {
+        SplittableRandom random = new SplittableRandom(7);
+        QuantileSketch whole = new QuantileSketch();
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 100 + 1000;
+            whole.add(values[i]);
+            (i % 2 == 0 ? left : right).add(values[i]);
+        }
+        left.merge(right);
+        Arrays.sort(values);
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+            double rank = Math.abs(Arrays.binarySearch(values, whole.quantile(q))) / (double) values.length;
+            double mergedRank = Math.abs(Arrays.binarySearch(values, left.quantile(q))) / (double) values.length;
+            assertEquals(q, rank, 0.01, "Rank error of quantile " + q);
+            assertEquals(q, mergedRank, 0.01, "Rank error of merged quantile " + q);
+        }
+        assertEquals(100_000, left.getCount());
+        assertEquals(67.4, whole.medianAbsoluteDeviation(), 2, "MAD of a normal is 0.674 sigma");
+        
+        List<ExportData> data = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            ProductType product = i % 2 == 0 ? ProductType.OLIVE_OIL : ProductType.WHEAT;
+            double base = product == ProductType.OLIVE_OIL ? 3500 : 350;
+            data.add(new ExportData(LocalDate.of(2023, 1, 1), product, base * (0.9 + 0.2 * random.nextDouble()),
+                    10, "France", MarketIndicator.STABLE));
+        }
+        List<ExportData> clean = List.copyOf(data);
+        // A wheat price typed per kilogram and an olive oil price with extra zeros
+        data.add(10_000, new ExportData(LocalDate.of(2023, 1, 1), ProductType.WHEAT, 0.35, 10, "France",
+                MarketIndicator.STABLE));
+        data.add(20_000, new ExportData(LocalDate.of(2023, 1, 1), ProductType.OLIVE_OIL, 350_000, 10, "France",
+                MarketIndicator.STABLE));
+        
+        for (OutlierFilter.Method method : OutlierFilter.Method.values()) {
+            OutlierFilter filter = new OutlierFilter(method, 3.0);
+            assertEquals(clean, filter.filter(data), method + " should drop only the injected outliers");
+            assertEquals(Map.of(ProductType.OLIVE_OIL, 1L, ProductType.WHEAT, 1L), filter.getLastFlagged());
+        }
+        
+        List<ExportData> streamed = new ArrayList<>();
+        assertEquals(clean.size(), new OutlierFilter().filter(data::stream, streamed::add));
+        assertEquals(clean, streamed);
+    }
+}
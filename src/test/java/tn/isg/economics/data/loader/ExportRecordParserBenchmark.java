@@ -0,0 +1,124 @@
+package tn.isg.economics.data.loader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.MarketIndicator;
+import tn.isg.economics.model.ProductType;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous per-row parsing path (header-name lookups, String.replace,
+ * Double.parseDouble, LocalDate.parse, toUpperCase + valueOf) with ExportRecordParser.
+ *
+ * Run with: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *           "-Dexec.args=-cp %classpath tn.isg.economics.data.loader.ExportRecordParserBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExportRecordParserBenchmark {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String[] HEADER = {
+            "date", "product_type", "price_per_ton", "volume", "destination_country", "market_indicator"
+    };
+    private static final int ROWS = 1024;
+
+    private char[][] lines;
+    private String[][] fields;
+    private Map<String, Integer> headerMap;
+    private ExportRecordParser parser;
+    private final int[] starts = new int[16];
+    private final int[] ends = new int[16];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ProductType[] products = ProductType.values();
+        MarketIndicator[] indicators = MarketIndicator.values();
+        String[] countries = {"France", "Germany", "Italy", "Spain", "Libya"};
+
+        lines = new char[ROWS][];
+        fields = new String[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            String[] row = {
+                    LocalDate.of(2015 + random.nextInt(9), 1 + random.nextInt(12), 1 + random.nextInt(28)).toString(),
+                    products[random.nextInt(products.length)].name(),
+                    String.format("%d,%02d", 700 + random.nextInt(4000), random.nextInt(100)),
+                    String.format("%d.%02d", 50 + random.nextInt(150), random.nextInt(100)),
+                    countries[random.nextInt(countries.length)],
+                    indicators[random.nextInt(indicators.length)].name()
+            };
+            fields[i] = row;
+            lines[i] = String.join(",", row[0], row[1], "\"" + row[2] + "\"", row[3], row[4], row[5]).toCharArray();
+        }
+
+        headerMap = new HashMap<>();
+        for (int i = 0; i < HEADER.length; i++) {
+            headerMap.put(HEADER[i], i);
+        }
+        parser = ExportRecordParser.forHeaderMap(headerMap);
+    }
+
+    @Benchmark
+    public void previousPath(Blackhole blackhole) {
+        for (String[] row : fields) {
+            blackhole.consume(parseLikeBefore(row));
+        }
+    }
+
+    @Benchmark
+    public void specializedFromStrings(Blackhole blackhole) {
+        for (String[] row : fields) {
+            blackhole.consume(parser.parse(index -> row[index]));
+        }
+    }
+
+    @Benchmark
+    public void specializedFromChars(Blackhole blackhole) {
+        for (char[] line : lines) {
+            int count = CsvLineTokenizer.tokenize(line, 0, line.length, starts, ends);
+            blackhole.consume(parser.parse(line, starts, ends, count));
+        }
+    }
+
+    /**
+     * The per-row logic DataLoader used before ExportRecordParser
+     */
+    private ExportData parseLikeBefore(String[] row) {
+        LocalDate date = LocalDate.parse(row[headerMap.get("date")], DATE_FORMATTER);
+        ProductType productType = ProductType.valueOf(row[headerMap.get("product_type")].toUpperCase());
+        double pricePerTon = Double.parseDouble(row[headerMap.get("price_per_ton")].replace(',', '.'));
+        double volume = Double.parseDouble(row[headerMap.get("volume")].replace(',', '.'));
+        String destinationCountry = row[headerMap.get("destination_country")];
+        MarketIndicator indicator = MarketIndicator.valueOf(row[headerMap.get("market_indicator")].toUpperCase());
+        return new ExportData(date, productType, pricePerTon, volume, destinationCountry, indicator);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExportRecordParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,131 @@
+package tn.isg.economics.data.transformer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import tn.isg.economics.model.ExportData;
+import tn.isg.economics.model.ProductType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+public class FAOSTATDataTransformerTest {
+
+    private static final String BULK_HEADER = "\uFEFF\"Area Code\",\"Area Code (M49)\",\"Area\",\"Item Code\","
+            + "\"Item Code (CPC)\",\"Item\",\"Element Code\",\"Element\",\"Year Code\",\"Year\",\"Unit\",\"Value\",\"Flag\"";
+
+    @Test
+    @DisplayName("Test bulk reader field parsing, line endings and filtering")
+    void testBulkReader() throws IOException {
+        String longItemName = "x".repeat(1_500_000);
+        String bulk = BULK_HEADER + "\r\n"
+                // Quoted fields with commas and doubled quotes, CRLF endings
+                + "\"222\",\"'788\",\"Tunisia, Republic of\",\"693\",\"'01314\",\"Dates, \"\"fresh\"\"\","
+                + "\"5910\",\"Export quantity\",\"2020\",\"2020\",\"t\",\"1000\",\"A\"\r\n"
+                + "222,'788,Tunisia,693,'01314,Dates,5922,Export value,2020,2020,1000 USD,2500,A\r\n"
+                // Filtered out by area, element and item
+                + "4,'012,Algeria,693,'01314,Dates,5910,Export quantity,2020,2020,t,700,A\r\n"
+                + "222,'788,Tunisia,693,'01314,Dates,5610,Import quantity,2020,2020,t,10,A\r\n"
+                + "222,'788,Tunisia,15,'0111,Wheat,5910,Export quantity,2020,2020,t,90,A\n"
+                // A line longer than the read buffer
+                + "222,'788,Tunisia,261,'01450,\"" + longItemName + "\",5910,Export quantity,2021,2021,t,300,A\n"
+                // Last line without a newline
+                + "222,'788,Tunisia,261,'01450,Olive oil,5922,Export value,2021,2021,1000 USD,900,A";
+
+        FaostatBulkReader reader = new FaostatBulkReader(List.of("788"), List.of("01314", "01450"));
+        FaostatPivot pivot = new FaostatPivot();
+        reader.read(new ByteArrayInputStream(bulk.getBytes(StandardCharsets.UTF_8)), pivot);
+
+        assertEquals(7, reader.getRowsScanned());
+        assertEquals(4, reader.getRowsMatched());
+        assertEquals(2, pivot.size());
+
+        assertEquals("788", pivot.areaCode(0));
+        assertEquals("01314", pivot.itemCode(0));
+        assertEquals(2020, pivot.year(0));
+        assertTrue(pivot.isComplete(0));
+        assertEquals(1000, pivot.quantity(0));
+        assertEquals(2500, pivot.value(0));
+
+        assertEquals("01450", pivot.itemCode(1));
+        assertEquals(2021, pivot.year(1));
+        assertTrue(pivot.isComplete(1));
+        assertEquals(300, pivot.quantity(1));
+        assertEquals(900, pivot.value(1));
+    }
+
+    @Test
+    @DisplayName("Test items without a product type are skipped, not relabeled")
+    void testUnmappedItemsSkipped(@TempDir Path tempDir) throws IOException {
+        Path bulk = tempDir.resolve("bulk.csv");
+        Files.writeString(bulk, BULK_HEADER + "\n"
+                + "222,'788,Tunisia,693,'01314,Dates,5910,Export quantity,2020,2020,t,1000,A\n"
+                + "222,'788,Tunisia,693,'01314,Dates,5922,Export value,2020,2020,1000 USD,2500,A\n"
+                + "222,'788,Tunisia,15,'0111,Wheat,5910,Export quantity,2020,2020,t,90,A\n"
+                + "222,'788,Tunisia,15,'0111,Wheat,5922,Export value,2020,2020,1000 USD,30,A\n");
+
+        FAOSTATDataTransformer transformer = new FAOSTATDataTransformer(Set.of("788"), Set.of("01314", "0111"), 1);
+        List<ExportData> bulkData = transformer.transformFAOSTATBulk(bulk.toString());
+        assertEquals(12, bulkData.size());
+        assertTrue(bulkData.stream().allMatch(d -> d.productType() == ProductType.DATES));
+
+        Path extract = tempDir.resolve("extract.csv");
+        Files.writeString(extract, "Item Code (CPC),Element,Year,Value\n"
+                + "01314,Export quantity,2020,1000\n"
+                + "01314,Export value,2020,2500\n"
+                + "0111,Export quantity,2020,90\n"
+                + "0111,Export value,2020,30\n");
+        List<ExportData> extractData = transformer.transformFAOSTATData(extract.toString());
+        assertEquals(12, extractData.size());
+        assertTrue(extractData.stream().allMatch(d -> d.productType() == ProductType.DATES));
+    }
+
+    @Test
+    @DisplayName("Test output depends on the seed only, not on the thread count")
+    void testDeterministicAcrossPools(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder("Item Code (CPC),Element,Year,Value\n");
+        String[] items = {"01314", "2167", "01323", "01450"};
+        for (int year = 2000; year < 2020; year++) {
+            for (int i = 0; i < items.length; i++) {
+                csv.append(items[i]).append(",Export quantity,").append(year).append(',').append(1000 + year * i).append('\n');
+                csv.append(items[i]).append(",Export value,").append(year).append(',').append(2000 + year).append('\n');
+            }
+        }
+        Path extract = tempDir.resolve("extract.csv");
+        Files.writeString(extract, csv);
+
+        List<ExportData> single = transformIn(1, extract, 7);
+        List<ExportData> parallel = transformIn(8, extract, 7);
+        List<ExportData> otherSeed = transformIn(8, extract, 8);
+
+        assertEquals(20 * items.length * 12, single.size());
+        assertEquals(single, parallel);
+        assertEquals(single, transformIn(4, extract, 7));
+        assertNotEquals(single, otherSeed);
+
+        FAOSTATDataTransformer transformer = new FAOSTATDataTransformer(
+                Set.of("788"), Set.of("01314", "2167", "01323", "01450"), 7);
+        assertEquals(single, transformer.transformFAOSTATDataToColumns(extract.toString()).asList(),
+                "Columns should hold the same rows as the record path");
+    }
+
+    private static List<ExportData> transformIn(int threads, Path extract, long seed)
+            throws InterruptedException, ExecutionException {
+        FAOSTATDataTransformer transformer = new FAOSTATDataTransformer(
+                Set.of("788"), Set.of("01314", "2167", "01323", "01450"), seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // A parallel stream started inside a pool task runs on that pool
+            return pool.submit(() -> transformer.transformFAOSTATData(extract.toString())).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
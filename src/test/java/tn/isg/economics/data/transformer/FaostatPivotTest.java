@@ -0,0 +1,98 @@
+package tn.isg.economics.data.transformer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class FaostatPivotTest {
+
+    @Test
+    @DisplayName("Test quantity and value pairs survive growth with out-of-order puts")
+    void testOutOfOrderPutsAcrossGrowth() {
+        String[][] series = {{"788", "01314"}, {"788", "2167"}, {"12", "01314"}, {"788", "01323"}, {"504", "01450"}};
+        int years = 100;
+        FaostatPivot pivot = new FaostatPivot();
+        int[] ids = new int[series.length];
+        for (int s = 0; s < series.length; s++) {
+            ids[s] = pivot.seriesId(series[s][0], series[s][1]);
+        }
+        assertEquals(ids[0], pivot.seriesId("788", "01314"));
+
+        // Quantities arrive in (year, series) order, which fixes the row order
+        for (int year = 0; year < years; year++) {
+            for (int s = 0; s < series.length; s++) {
+                pivot.putQuantity(ids[s], 1900 + year, quantity(s, year));
+            }
+        }
+        assertEquals(series.length * years, pivot.size());
+
+        // Values arrive shuffled, and every seventh row never gets one
+        List<Integer> order = new ArrayList<>();
+        for (int row = 0; row < series.length * years; row++) {
+            order.add(row);
+        }
+        Collections.shuffle(order, new Random(3));
+        for (int row : order) {
+            if (row % 7 != 0) {
+                pivot.putValue(ids[row % series.length], 1900 + row / series.length, value(row % series.length, row / series.length));
+            }
+        }
+        // A value-only row is appended after the quantity rows
+        pivot.putValue(ids[2], 1800, 5.0);
+        // A later row replaces an earlier one
+        pivot.putQuantity(ids[1], 1950, 1.0);
+
+        assertEquals(series.length * years + 1, pivot.size());
+        for (int row = 0; row < series.length * years; row++) {
+            int s = row % series.length;
+            int year = row / series.length;
+            assertEquals(series[s][0], pivot.areaCode(row));
+            assertEquals(series[s][1], pivot.itemCode(row));
+            assertEquals(1900 + year, pivot.year(row));
+            assertEquals(FaostatPivot.pack(ids[s], 1900 + year), pivot.key(row));
+            assertEquals(row % 7 != 0, pivot.isComplete(row));
+            assertEquals(s == 1 && year == 50 ? 1.0 : quantity(s, year), pivot.quantity(row));
+            if (row % 7 != 0) {
+                assertEquals(value(s, year), pivot.value(row));
+            }
+        }
+
+        int last = series.length * years;
+        assertEquals("01314", pivot.itemCode(last));
+        assertEquals(1800, pivot.year(last));
+        assertFalse(pivot.isComplete(last));
+        assertEquals(5.0, pivot.value(last));
+    }
+
+    @Test
+    @DisplayName("Test item-only series carry no area code")
+    void testItemSeries() {
+        FaostatPivot pivot = new FaostatPivot(4);
+        int dates = pivot.itemId("01314");
+        int oil = pivot.itemId("2167");
+        assertNotEquals(dates, oil);
+        assertEquals(dates, pivot.itemId("01314"));
+
+        pivot.putValue(oil, 2021, 30);
+        pivot.putQuantity(dates, 2020, 10);
+        pivot.putQuantity(oil, 2021, 3);
+
+        assertEquals(2, pivot.size());
+        assertEquals("2167", pivot.itemCode(0));
+        assertNull(pivot.areaCode(0));
+        assertTrue(pivot.isComplete(0));
+        assertFalse(pivot.isComplete(1));
+    }
+
+    private static double quantity(int series, int year) {
+        return 1000 + series * 100 + year;
+    }
+
+    private static double value(int series, int year) {
+        return 2000 + series * 1000 + year * 3;
+    }
+}
@@ -3,7 +3,11 @@ package tn.isg.economics.model;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
+import tn.isg.economics.util.ExchangeRateTable;
+import java.io.IOException;
+import java.io.StringReader;
 import java.time.LocalDate;
+import java.util.List;
 
 public class ModelTest {
     
@@ -89,4 +93,70 @@ public class ModelTest {
         assertEquals(PredictionStatus.FAILED, PredictionStatus.valueOf("FAILED"));
         assertEquals(PredictionStatus.LOW_CONFIDENCE, PredictionStatus.valueOf("LOW_CONFIDENCE"));
     }
+    
+    @Test
+    @DisplayName("Test ExportDataColumns record view and scans")
+    void testExportDataColumns() {
+        List<ExportData> records = List.of(
+            new ExportData(LocalDate.of(2024, 1, 10), ProductType.OLIVE_OIL, 3000.0, 10.0, "France", MarketIndicator.RISING),
+            new ExportData(LocalDate.of(2024, 2, 10), ProductType.DATES, 2000.0, 20.0, "Germany", MarketIndicator.STABLE),
+            new ExportData(LocalDate.of(2024, 3, 10), ProductType.OLIVE_OIL, 4000.0, 30.0, "France", MarketIndicator.VOLATILE)
+        );
+        
+        ExportDataColumns columns = ExportDataColumns.from(records);
+        
+        assertEquals(records, columns.asList(), "Record view should reproduce the original records");
+        assertEquals(columns.countryId(0), columns.countryId(2), "Countries should be dictionary-encoded");
+        assertEquals(3500.0, columns.averagePrice(ProductType.OLIVE_OIL), 0.001);
+        assertTrue(Double.isNaN(columns.averagePrice(ProductType.WHEAT)));
+        assertEquals(3000.0 * 10 + 2000.0 * 20 + 4000.0 * 30, columns.totalExportValue(), 0.001);
+        assertEquals(2, columns.countByCountry()[columns.lookupCountry("France")]);
+        
+        int[] rows = columns.filter(ProductType.OLIVE_OIL, LocalDate.of(2024, 2, 1), null);
+        assertArrayEquals(new int[]{2}, rows);
+        assertEquals(records.get(2), columns.select(rows).get(0));
+    }
+    
+    @Test
+    @DisplayName("Test CountryDictionary canonical instances")
+    void testCountryDictionary() {
+        CountryDictionary dictionary = new CountryDictionary();
+        char[] line = "Tunisia,Malta".toCharArray();
+        
+        int id = dictionary.idOf(new String("Malta"));
+        
+        assertEquals(id, dictionary.idOf(line, 8, 13), "Char ranges should resolve to the registered id");
+        assertSame(dictionary.name(id), dictionary.canonical(new String("Malta")));
+        assertEquals(-1, dictionary.lookup("Tunisia"));
+        assertEquals("Tunisia", dictionary.canonical(line, 0, 7));
+        assertEquals(2, dictionary.size());
+
+        CountryDictionary bounded = new CountryDictionary(100);
+        for (int i = 0; i < 99; i++) {
+            assertEquals(i, bounded.idOf("Country " + i));
+        }
+        int other = bounded.idOf("Junk 1");
+        assertEquals(CountryDictionary.OVERFLOW, bounded.name(other));
+        assertEquals(other, bounded.idOf("Junk 2".toCharArray(), 0, 6), "Names past the cap share the overflow id");
+        assertEquals(42, bounded.lookup("Country 42"), "Growth must keep earlier ids");
+        assertEquals(100, bounded.size());
+    }
+
+    @Test
+    @DisplayName("Test exchange rate table lookups and batch conversion")
+    void testExchangeRateTable() throws IOException {
+        ExchangeRateTable rates = ExchangeRateTable.load(new StringReader(
+            "date,currency,rate\n2010,USD,1.4\n2020-06,USD,2.8\n2020-06-15,USD,3.0\n2010,EUR,1.9\n"), "USD");
+
+        assertEquals(1.4, rates.rate(LocalDate.of(2005, 1, 1)), 1e-9, "Dates before the table use the first rate");
+        assertEquals(1.4, rates.rate(LocalDate.of(2020, 5, 31)), 1e-9);
+        assertEquals(2.8, rates.rate(LocalDate.of(2020, 6, 14)), 1e-9);
+        assertEquals(3.0, rates.rate(LocalDate.of(2024, 1, 1)), 1e-9, "Dates after the table use the last rate");
+
+        double[] tnd = rates.convert(new double[]{100, 100},
+            new int[]{(int) LocalDate.of(2015, 1, 1).toEpochDay(), (int) LocalDate.of(2020, 6, 1).toEpochDay()});
+        assertArrayEquals(new double[]{140, 280}, tnd, 1e-9);
+        assertTrue(ExchangeRateTable.usdToTnd().rate(LocalDate.of(2023, 7, 1))
+            > ExchangeRateTable.usdToTnd().rate(LocalDate.of(2005, 7, 1)), "Bundled rates should be historical");
+    }
 }